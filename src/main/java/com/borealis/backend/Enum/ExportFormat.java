@@ -0,0 +1,39 @@
+package com.borealis.backend.Enum;
+
+/**
+ * Formati supportati dall'esportazione del catalogo (GET /api/products/export).
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    ExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * @throws IllegalArgumentException se il formato non è supportato.
+     */
+    public static ExportFormat fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return ExportFormat.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato di esportazione non valido: " + value);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.borealis.backend.Enum;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Campi di ProductResponseDTO selezionabili con il parametro 'fields' (sparse fieldset).
+ * Ogni campo corrisponde all'omonimo attributo dell'entità Product; per owner, seller e category
+ * la query legge solo la chiave esterna, senza join.
+ */
+public enum ProductField {
+    ID("id"),
+    DESCRIPTION("description"),
+    CURRENT_PRICE("currentPrice"),
+    INSERTION_DATE("insertionDate"),
+    SALE_DATE("saleDate"),
+    SOLD("sold"),
+    SIZE("size"),
+    BRAND("brand"),
+    COMPOSITION("composition"),
+    GENDER("gender"),
+    OWNER("owner"),
+    SELLER("seller"),
+    SELLER_COMMISSION_AMOUNT("sellerCommissionAmount"),
+    CATEGORY("category"),
+    VERSION("version");
+
+    private final String property;
+
+    ProductField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isAssociation() {
+        return this == OWNER || this == SELLER || this == CATEGORY;
+    }
+
+    /**
+     * Converte il parametro della richiesta (es. "id,description,currentPrice") nei campi corrispondenti.
+     * L'ID è sempre incluso.
+     * @param value I nomi dei campi separati da virgola, come nel JSON della risposta.
+     * @return I campi richiesti, nell'ordine di ProductResponseDTO.
+     * @throws IllegalArgumentException se un nome non corrisponde a nessun campo.
+     */
+    public static Set<ProductField> fromParam(String value) {
+        Set<ProductField> fields = EnumSet.of(ID);
+        for (String name : value.split(",")) {
+            if (!name.isBlank()) {
+                fields.add(fromProperty(name.trim()));
+            }
+        }
+        return fields;
+    }
+
+    private static ProductField fromProperty(String name) {
+        for (ProductField field : values()) {
+            if (field.property.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Campo non valido: " + name);
+    }
+}
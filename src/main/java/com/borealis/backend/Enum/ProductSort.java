@@ -0,0 +1,38 @@
+package com.borealis.backend.Enum;
+
+/**
+ * Ordinamenti stabili supportati dalla paginazione a cursore dei prodotti.
+ * Ogni ordinamento usa l'ID come criterio di spareggio, così due prodotti
+ * con la stessa data o lo stesso prezzo non vengono mai saltati o duplicati tra una pagina e l'altra.
+ */
+public enum ProductSort {
+    INSERTION_DATE_DESC,
+    INSERTION_DATE_ASC,
+    PRICE_ASC,
+    PRICE_DESC;
+
+    public boolean isByPrice() {
+        return this == PRICE_ASC || this == PRICE_DESC;
+    }
+
+    public boolean isAscending() {
+        return this == INSERTION_DATE_ASC || this == PRICE_ASC;
+    }
+
+    /**
+     * Converte il parametro della richiesta (es. "price_asc") nell'ordinamento corrispondente.
+     * @param value Il valore del parametro, può essere null.
+     * @return L'ordinamento richiesto, o INSERTION_DATE_DESC se non specificato.
+     * @throws IllegalArgumentException se il valore non corrisponde a nessun ordinamento.
+     */
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return INSERTION_DATE_DESC;
+        }
+        try {
+            return ProductSort.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ordinamento non valido: " + value);
+        }
+    }
+}
@@ -2,5 +2,6 @@ package com.borealis.backend.Enum;
 
 public enum Role {
     ROLE_USER,
-    ROLE_SUPERUSER
+    ROLE_SUPERUSER,
+    ROLE_OPS // Monitoraggio: accesso alle metriche (/actuator/prometheus), nessun permesso in più sulle API
 }
\ No newline at end of file
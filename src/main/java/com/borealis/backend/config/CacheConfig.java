@@ -0,0 +1,58 @@
+package com.borealis.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cache in memoria (Caffeine) per i dati letti spesso e modificati raramente.
+ * Ogni cache ha una dimensione massima e una scadenza, e registra hit e miss: con l'actuator le statistiche sono
+ * disponibili su /actuator/metrics/cache.gets.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATEGORIES = "categories"; // Categoria per ID
+    public static final String CATEGORY_LIST = "categoryList"; // Elenco completo delle categorie
+    public static final String USER_PRINCIPALS = "userPrincipals"; // Principal di AuthTokenFilter per email
+
+    @Value("${borealis.app.categoryCacheMaxSize:1000}") // Numero massimo di elementi per cache
+    private long categoryCacheMaxSize;
+
+    @Value("${borealis.app.categoryCacheTtl:PT10M}") // Scadenza dalla scrittura, formato ISO-8601 (es. PT10M)
+    private Duration categoryCacheTtl;
+
+    @Value("${borealis.app.userPrincipalCacheMaxSize:10000}") // Numero massimo di utenti in cache
+    private long userPrincipalCacheMaxSize;
+
+    @Value("${borealis.app.userPrincipalCacheTtl:PT5M}") // Ritardo massimo con cui vengono viste modifiche fatte fuori da UserService
+    private Duration userPrincipalCacheTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(categoryCacheMaxSize)
+                .expireAfterWrite(categoryCacheTtl)
+                .recordStats());
+        cacheManager.setCacheNames(List.of(CATEGORIES, CATEGORY_LIST)); // Solo cache dichiarate: un nome errato è un errore
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(USER_PRINCIPALS, Caffeine.newBuilder()
+                .maximumSize(userPrincipalCacheMaxSize)
+                .expireAfterWrite(userPrincipalCacheTtl)
+                .recordStats()
+                .build());
+        // Le invalidazioni fatte dentro una transazione vengono applicate dopo il commit, così una lettura
+        // concorrente non può rimettere in cache il valore precedente prima che la modifica sia visibile
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,98 @@
+package com.borealis.backend.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita le connessioni JDBC usate contemporaneamente e il numero di richieste in attesa di una connessione.
+ * Con i thread virtuali il numero di richieste concorrenti non è più limitato dal pool di Tomcat: senza questo limite
+ * migliaia di richieste resterebbero in coda dentro HikariCP fino al suo timeout. Qui invece, oltre 'maxWaiters'
+ * richieste in attesa o dopo 'acquireTimeout', la richiesta fallisce subito (503).
+ * Il permesso viene restituito alla chiusura della connessione.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxWaiters;
+    private final Duration acquireTimeout;
+
+    public ConnectionLimitingDataSource(DataSource targetDataSource, int maxConnections, int maxWaiters, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxWaiters = maxWaiters;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (permits.getQueueLength() >= maxWaiters) {
+            throw new SQLTransientConnectionException("Troppe richieste in attesa di una connessione al database.");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Nessuna connessione al database disponibile entro " + acquireTimeout + ".");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Attesa della connessione interrotta.", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    if (method.getName().equals("unwrap") && ((Class<?>) args[0]).isInstance(connection)) {
+                        return connection;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -3,7 +3,10 @@ package com.borealis.backend.config;
 import com.borealis.backend.Enum.Role;
 import com.borealis.backend.model.User;
 import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.service.ProductStatisticsService;
+import com.borealis.backend.service.SyntheticDataGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -20,6 +23,27 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     PasswordEncoder passwordEncoder;
 
+    @Autowired
+    ProductStatisticsService productStatisticsService;
+
+    @Autowired
+    SyntheticDataGenerator syntheticDataGenerator;
+
+    @Value("${borealis.app.syntheticProducts:0}") // Prodotti del dataset sintetico (0 = nessun dataset)
+    private int syntheticProducts;
+
+    @Value("${borealis.app.syntheticUsers:100}")
+    private int syntheticUsers;
+
+    @Value("${borealis.app.syntheticCategories:20}")
+    private int syntheticCategories;
+
+    @Value("${borealis.app.syntheticPassword:Sintetico!1}") // Password comune degli utenti sintetici, solo per sviluppo
+    private String syntheticPassword;
+
+    @Value("${borealis.app.statisticsRebuildOnStartup:false}") // Se true ricalcola sempre le statistiche all'avvio
+    private boolean statisticsRebuildOnStartup;
+
     @Override
     public void run(String... args) throws Exception {
         // Creare un superutente se non esiste già
@@ -36,6 +60,27 @@ public class DataInitializer implements CommandLineRunner {
             System.out.println("Superuser 'user@borealis.com' creato con successo!");
         }
 
+        // Dataset sintetico per sviluppo e test di carico, generato una volta sola. Il marcatore è l'email definitiva
+        // del primo utente sintetico, assegnata solo a generazione completata: i resti di una generazione interrotta
+        // vengono eliminati e il dataset viene generato di nuovo
+        if (syntheticProducts > 0 && userRepository.findByEmail(SyntheticDataGenerator.email(0)).isEmpty()) {
+            int removed = syntheticDataGenerator.deleteIncomplete();
+            if (removed > 0) {
+                System.out.println("Eliminati i resti di un dataset sintetico incompleto (" + removed + " utenti).");
+            }
+            SyntheticDataGenerator.Dataset dataset = syntheticDataGenerator.generate(syntheticUsers, syntheticCategories,
+                    syntheticProducts, syntheticPassword);
+            System.out.println("Dataset sintetico creato: " + dataset.getUserIds().size() + " utenti, "
+                    + dataset.getCategoryIds().size() + " categorie, " + dataset.getProducts() + " prodotti ("
+                    + dataset.getSoldProducts() + " venduti), " + dataset.getPrices() + " prezzi.");
+        }
+
+        // Costruisce il read model delle statistiche se manca (primo avvio) o se richiesto esplicitamente
+        if (statisticsRebuildOnStartup || !productStatisticsService.isInitialized()) {
+            productStatisticsService.rebuild();
+            System.out.println("Statistiche prodotti ricalcolate.");
+        }
+
         // Puoi aggiungere qui altri dati di inizializzazione se necessario
     }
 }
\ No newline at end of file
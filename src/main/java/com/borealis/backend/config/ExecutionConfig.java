@@ -0,0 +1,49 @@
+package com.borealis.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Modalità di esecuzione delle richieste.
+ * Con spring.threads.virtual.enabled=true Spring Boot esegue le richieste di Tomcat su thread virtuali.
+ * In quella modalità va attivato anche il limite sulle connessioni JDBC (borealis.app.jdbcConnectionLimit).
+ */
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${borealis.app.jdbcConnectionLimit:0}") int maxConnections, // 0 = nessun limite
+            @Value("${borealis.app.jdbcConnectionMaxWaiters:200}") int maxWaiters,
+            @Value("${borealis.app.jdbcConnectionAcquireTimeout:PT2S}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (maxConnections > 0 && bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return new ConnectionLimitingDataSource(dataSource, maxConnections, maxWaiters, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode() {
+        logger.info("Esecuzione delle richieste su thread {}.", virtualThreads ? "virtuali" : "di piattaforma");
+    }
+}
@@ -0,0 +1,46 @@
+package com.borealis.backend.config;
+
+import com.borealis.backend.metrics.SqlMetricsInterceptor;
+import com.borealis.backend.metrics.SqlStatementListener;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Strumentazione esposta su /actuator/prometheus (accesso per ROLE_OPS e ROLE_SUPERUSER):
+ * - borealis.service: tempi (con istogramma) dei metodi pubblici dei service annotati con @Timed
+ * - borealis.sql.statements / borealis.sql.time: statement SQL e tempo sul database per endpoint
+ * - borealis.auth.filter: tempo di autenticazione del token JWT (AuthTokenFilter)
+ * - hikaricp.connections.*: stato del pool di connessioni, registrato da Spring Boot
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MetricsConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Rende attive le annotazioni @Timed sui service
+    @Bean
+    public TimedAspect timedAspect() {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementListenerCustomizer() {
+        return properties -> properties.put("hibernate.session.events.auto", SqlStatementListener.class.getName());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlMetricsInterceptor(meterRegistry));
+    }
+}
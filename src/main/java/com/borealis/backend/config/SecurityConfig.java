@@ -1,9 +1,12 @@
 package com.borealis.backend.config;
 
+import com.borealis.backend.security.BoundedPasswordEncoder;
 import com.borealis.backend.security.jwt.AuthEntryPointJwt;
 import com.borealis.backend.security.jwt.AuthTokenFilter;
 import com.borealis.backend.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,6 +23,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -33,6 +37,18 @@ public class SecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${borealis.app.passwordHashThreads:0}") // Thread dedicati agli hash delle password (0 = numero di core)
+    private int passwordHashThreads;
+
+    @Value("${borealis.app.passwordHashQueueCapacity:64}") // Operazioni in attesa oltre le quali si risponde 503
+    private int passwordHashQueueCapacity;
+
+    @Value("${borealis.app.passwordHashMaxWait:PT2S}") // Attesa massima di una richiesta (coda + calcolo)
+    private Duration passwordHashMaxWait;
+
     // Definisce il bean per il filtro JWT
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
@@ -54,10 +70,12 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
-    // Bean per l'encoder delle password (BCrypt è consigliato)
+    // Bean per l'encoder delle password (BCrypt è consigliato), eseguito su un pool dedicato e limitato
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = passwordHashThreads > 0 ? passwordHashThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, passwordHashQueueCapacity,
+                passwordHashMaxWait, meterRegistry);
     }
 
     // Configurazione della catena di filtri di sicurezza HTTP
@@ -73,6 +91,11 @@ public class SecurityConfig {
                                 .requestMatchers("/api/products/**").authenticated()
                                 .requestMatchers("/api/users/**").authenticated()
                                 .requestMatchers("/api/categories/**").authenticated()
+                                // Actuator: lo stato di salute è pubblico, le metriche Prometheus per il monitoraggio,
+                                // il resto (metriche e cache) solo per il superuser
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/actuator/prometheus").hasAnyRole("OPS", "SUPERUSER")
+                                .requestMatchers("/actuator/**").hasRole("SUPERUSER")
                                 .anyRequest().authenticated() // Tutte le altre richieste richiedono autenticazione
                 );
 
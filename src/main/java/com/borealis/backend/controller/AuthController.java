@@ -5,6 +5,8 @@ import com.borealis.backend.dto.request.RegisterRequestDTO;
 import com.borealis.backend.dto.request.UserCreationRequestDTO; // <-- Importa il nuovo DTO
 import com.borealis.backend.dto.response.JwtResponseDTO;
 import com.borealis.backend.dto.response.UserResponseDTO;
+import com.borealis.backend.exception.ServiceBusyException;
+import com.borealis.backend.security.LoginRateLimiter;
 import com.borealis.backend.security.jwt.JwtUtils;
 import com.borealis.backend.security.services.UserDetailsImpl;
 import com.borealis.backend.service.AuthService;
@@ -18,6 +20,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -38,16 +41,21 @@ public class AuthController {
     @Autowired
     AuthService authService;
 
+    @Autowired
+    LoginRateLimiter loginRateLimiter;
+
     /**
      * POST /api/auth/login
      * Endpoint per l'autenticazione dell'utente.
      * Riceve email e password, autentica l'utente e restituisce un JWT.
+     * Troppi tentativi dallo stesso IP o per lo stesso account ricevono 429, un pool degli hash saturo 503.
      *
      * @param loginRequest DTO contenente email e password.
      * @return ResponseEntity con JwtResponseDTO in caso di successo, o errore.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest, HttpServletRequest request) {
+        loginRateLimiter.acquire(request.getRemoteAddr(), loginRequest.getEmail());
 
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
@@ -84,6 +92,8 @@ public class AuthController {
             return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (ServiceBusyException e) {
+            throw e; // 503 con Retry-After, gestita da GlobalExceptionHandler
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -100,6 +110,8 @@ public class AuthController {
             return new ResponseEntity<>(registeredUser, HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (ServiceBusyException e) {
+            throw e; // 503 con Retry-After, gestita da GlobalExceptionHandler
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
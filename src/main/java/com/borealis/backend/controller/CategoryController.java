@@ -2,12 +2,14 @@ package com.borealis.backend.controller;
 
 import com.borealis.backend.dto.request.CategoryRequestDTO;
 import com.borealis.backend.dto.response.CategoryResponseDTO;
+import com.borealis.backend.service.CatalogVersionService;
 import com.borealis.backend.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,21 +19,28 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersionService catalogVersionService;
 
     @Autowired
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogVersionService catalogVersionService) {
         this.categoryService = categoryService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     /**
      * GET /api/categories
      * Recupera tutte le categorie.
+     * Con If-None-Match ancora valido la risposta è 304, senza leggere le categorie.
      * @return Lista di CategoryResponseDTO.
      */
     @GetMapping
-    public ResponseEntity<List<CategoryResponseDTO>> getAllCategories() {
+    public ResponseEntity<List<CategoryResponseDTO>> getAllCategories(WebRequest request) {
+        String eTag = catalogVersionService.categoriesETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<CategoryResponseDTO> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return ConditionalGet.ok(eTag, categories);
     }
 
     /**
@@ -41,10 +50,14 @@ public class CategoryController {
      * @return CategoryResponseDTO se trovata.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryResponseDTO> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategoryResponseDTO> getCategoryById(@PathVariable Long id, WebRequest request) {
+        String eTag = catalogVersionService.categoriesETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         try {
             CategoryResponseDTO category = categoryService.getCategoryById(id);
-            return ResponseEntity.ok(category);
+            return ConditionalGet.ok(eTag, category);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
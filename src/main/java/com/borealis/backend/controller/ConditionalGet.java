@@ -0,0 +1,22 @@
+package com.borealis.backend.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Risposte delle GET con ETag (versioni di CatalogVersionService).
+ * Il client può conservare la risposta ma deve sempre rivalidarla con If-None-Match: se l'ETag coincide il controller
+ * chiama WebRequest.checkNotModified prima della query e restituisce null, e Spring risponde 304 senza corpo.
+ */
+final class ConditionalGet {
+
+    // Senza Cache-Control esplicito Spring Security imposterebbe "no-store" e il browser non rimanderebbe l'ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    static <T> ResponseEntity<T> ok(String eTag, T body) {
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(body);
+    }
+}
@@ -1,19 +1,41 @@
 package com.borealis.backend.controller;
 
+import com.borealis.backend.Enum.ExportFormat;
+import com.borealis.backend.Enum.ProductField;
+import com.borealis.backend.dto.request.CheckoutRequestDTO;
+import com.borealis.backend.dto.request.ProductBatchRequestDTO;
+import com.borealis.backend.dto.request.ProductBulkDeleteRequestDTO;
 import com.borealis.backend.dto.request.ProductRequestDTO;
 import com.borealis.backend.dto.request.ProductUpdateRequestDTO;
 import com.borealis.backend.dto.request.ProductSaleRequestDTO;
+import com.borealis.backend.dto.response.CheckoutReceiptResponseDTO;
+import com.borealis.backend.dto.response.CursorPageResponseDTO;
+import com.borealis.backend.dto.response.NormalizedProductListResponseDTO;
+import com.borealis.backend.dto.response.ProductBatchResponseDTO;
+import com.borealis.backend.dto.response.ProductBulkDeleteResponseDTO;
 import com.borealis.backend.dto.response.ProductPriceResponseDTO;
 import com.borealis.backend.dto.response.ProductResponseDTO;
+import com.borealis.backend.dto.response.ProductSearchResponseDTO;
 import com.borealis.backend.dto.response.ProductStatisticsResponseDTO;
 import com.borealis.backend.model.Product;
+import com.borealis.backend.service.ProductBatchService;
+import com.borealis.backend.service.CatalogVersionService;
+import com.borealis.backend.service.ProductBulkDeleteService;
+import com.borealis.backend.service.ProductCheckoutService;
+import com.borealis.backend.service.ProductExportService;
 import com.borealis.backend.service.ProductService;
+import com.borealis.backend.service.ProductStatisticsService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -23,10 +45,25 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductStatisticsService productStatisticsService;
+    private final ProductBatchService productBatchService;
+    private final ProductCheckoutService productCheckoutService;
+    private final ProductBulkDeleteService productBulkDeleteService;
+    private final CatalogVersionService catalogVersionService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductExportService productExportService,
+                             ProductStatisticsService productStatisticsService, ProductBatchService productBatchService,
+                             ProductCheckoutService productCheckoutService, ProductBulkDeleteService productBulkDeleteService,
+                             CatalogVersionService catalogVersionService) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.productStatisticsService = productStatisticsService;
+        this.productBatchService = productBatchService;
+        this.productCheckoutService = productCheckoutService;
+        this.productBulkDeleteService = productBulkDeleteService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     // Creazione Prodotto (POST /api/products)
@@ -40,42 +77,221 @@ public class ProductController {
         }
     }
 
+    /**
+     * Creazione di più prodotti in un'unica richiesta (POST /api/products/batch).
+     * Ogni elemento viene validato singolarmente: la risposta riporta per ciascuno l'ID creato o gli errori.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponseDTO> createProducts(@Valid @RequestBody ProductBatchRequestDTO batchDto) {
+        try {
+            ProductBatchResponseDTO result = productBatchService.createProducts(batchDto);
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // Recupera Prodotto per ID (GET /api/products/{id})
+    // Come tutte le GET del catalogo risponde con un ETag: con If-None-Match ancora valido la risposta è 304
+    // 'fields' (opzionale) limita la risposta ai campi indicati, es. ?fields=description,currentPrice,sold
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(@PathVariable Long id,
+                                            @RequestParam(required = false) String fields,
+                                            WebRequest request) {
+        String eTag = catalogVersionService.productsETag(null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        if (fields != null) {
+            try {
+                ProductField.fromParam(fields);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            try {
+                return ConditionalGet.ok(eTag, productService.getProductFieldsById(id, fields));
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        }
         try {
             ProductResponseDTO product = productService.getProductById(id);
-            return new ResponseEntity<>(product, HttpStatus.OK);
+            return ConditionalGet.ok(eTag, product);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
-    // Recupera TUTTI i prodotti (GET /api/products) - se lo mantieni
+    /**
+     * Recupera TUTTI i prodotti (GET /api/products).
+     * Se viene passato 'size' o 'cursor' la risposta è paginata a cursore (CursorPageResponseDTO),
+     * altrimenti restituisce la lista completa come in precedenza.
+     *
+     * @param cursor Il cursore 'nextCursor' della pagina precedente (opzionale).
+     * @param size La dimensione di pagina (opzionale).
+     * @param sort INSERTION_DATE_DESC (default), INSERTION_DATE_ASC, PRICE_ASC o PRICE_DESC.
+     * @param view "normalized" per il formato normalizzato (NormalizedProductListResponseDTO), in cui utenti e categorie
+     *             compaiono una sola volta in dizionari separati invece di essere ripetuti in ogni prodotto.
+     * @param fields I soli campi da restituire, es. "id,description,currentPrice,sold" (opzionale, prevale su 'view').
+     *               La query legge solo le colonne richieste e non carica owner, seller e category se non sono tra i campi.
+     */
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        List<ProductResponseDTO> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        String eTag = catalogVersionService.productsETag(null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        if (fields != null) {
+            return getProductFields(fields, null, null, null, null, cursor, size, sort, eTag);
+        }
+        if (isNormalized(view)) {
+            return getNormalizedProducts(null, null, null, null, cursor, size, sort, eTag);
+        }
+        if (cursor == null && size == null) {
+            List<ProductResponseDTO> products = productService.getAllProducts();
+            return ConditionalGet.ok(eTag, products);
+        }
+        try {
+            CursorPageResponseDTO<ProductResponseDTO> page = productService.getProductsPage(null, null, null, null, cursor, size, sort);
+            return ConditionalGet.ok(eTag, page);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
-    // MODIFICATO: Recupera prodotti con filtri (GET /api/products/filter)
+    /**
+     * Recupera prodotti con filtri (GET /api/products/filter).
+     * Come per GET /api/products, 'size' o 'cursor' attivano la paginazione a cursore, 'view=normalized' il formato normalizzato
+     * e 'fields' la selezione dei campi.
+     * Con 'ownerId' l'ETag cambia solo quando cambiano i prodotti di quel proprietario.
+     */
     @GetMapping("/filter")
-    public ResponseEntity<List<ProductResponseDTO>> getFilteredProducts(
+    public ResponseEntity<?> getFilteredProducts(
             @RequestParam(required = false) String description,
             @RequestParam(required = false) Long ownerId,
             @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) String status) {
-        List<ProductResponseDTO> products = productService.getFilteredProducts(description, ownerId, categoryId, status);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        String eTag = catalogVersionService.productsETag(ownerId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        if (fields != null) {
+            return getProductFields(fields, description, ownerId, categoryId, status, cursor, size, sort, eTag);
+        }
+        if (isNormalized(view)) {
+            return getNormalizedProducts(description, ownerId, categoryId, status, cursor, size, sort, eTag);
+        }
+        if (cursor == null && size == null) {
+            List<ProductResponseDTO> products = productService.getFilteredProducts(description, ownerId, categoryId, status);
+            return ConditionalGet.ok(eTag, products);
+        }
+        try {
+            CursorPageResponseDTO<ProductResponseDTO> page = productService.getProductsPage(description, ownerId, categoryId, status, cursor, size, sort);
+            return ConditionalGet.ok(eTag, page);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static boolean isNormalized(String view) {
+        return "normalized".equalsIgnoreCase(view);
+    }
+
+    private ResponseEntity<NormalizedProductListResponseDTO> getNormalizedProducts(String description, Long ownerId, Long categoryId,
+                                                                                   String status, String cursor, Integer size,
+                                                                                   String sort, String eTag) {
+        try {
+            NormalizedProductListResponseDTO products = cursor == null && size == null
+                    ? productService.getNormalizedProducts(description, ownerId, categoryId, status)
+                    : productService.getNormalizedProductsPage(description, ownerId, categoryId, status, cursor, size, sort);
+            return ConditionalGet.ok(eTag, products);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private ResponseEntity<?> getProductFields(String fields, String description, Long ownerId, Long categoryId, String status,
+                                               String cursor, Integer size, String sort, String eTag) {
+        try {
+            if (cursor == null && size == null) {
+                return ConditionalGet.ok(eTag, productService.getProductFields(fields, description, ownerId, categoryId, status));
+            }
+            return ConditionalGet.ok(eTag, productService.getProductFieldsPage(fields, description, ownerId, categoryId, status, cursor, size, sort));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Ricerca full-text su descrizione, marca e composizione (GET /api/products/search?q=...).
+     * I risultati sono ordinati per rilevanza e paginati con 'page' (da 0) e 'size'.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponseDTO> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        String eTag = catalogVersionService.productsETag(null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        try {
+            return ConditionalGet.ok(eTag, productService.searchProducts(q, page, size));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Esportazione del catalogo in streaming (GET /api/products/export).
+     * Accetta gli stessi filtri di /filter e scrive i prodotti man mano che vengono letti dal database,
+     * senza costruire la lista completa in memoria.
+     *
+     * @param format "ndjson" (default) oppure "csv".
+     * @return Il file esportato come allegato.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParam(format);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        StreamingResponseBody body = out -> productExportService.exportProducts(description, ownerId, categoryId, status, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.getFileExtension() + "\"")
+                .body(body);
     }
 
     // Assegna Proprietario (PUT /api/products/{productId}/assign-owner)
+    // 'version' (opzionale) è la versione letta dal client: se il prodotto è cambiato nel frattempo la risposta è 409
     @PutMapping("/{productId}/assign-owner")
     public ResponseEntity<ProductResponseDTO> assignProductToOwner(
             @PathVariable Long productId,
-            @RequestParam Long newOwnerId) {
+            @RequestParam Long newOwnerId,
+            @RequestParam(required = false) Long version) {
         try {
-            ProductResponseDTO updatedProduct = productService.assignProductToOwner(productId, newOwnerId);
+            ProductResponseDTO updatedProduct = productService.assignProductToOwner(productId, newOwnerId, version);
             return new ResponseEntity<>(updatedProduct, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
@@ -93,7 +309,25 @@ public class ProductController {
         }
     }
 
+    /**
+     * Eliminazione in blocco di prodotti e storico prezzi (POST /api/products/bulk-delete).
+     * Accetta una lista di ID e/o un filtro, es. {"ownerId": 3, "status": "SOLD", "soldBefore": "2024-01-01"}.
+     * L'eliminazione avviene a blocchi, una transazione per blocco.
+     *
+     * @return Il numero di prodotti e prezzi eliminati.
+     */
+    @PostMapping("/bulk-delete")
+    @PreAuthorize("hasRole('SUPERUSER')")
+    public ResponseEntity<ProductBulkDeleteResponseDTO> deleteProducts(@RequestBody ProductBulkDeleteRequestDTO deleteDto) {
+        try {
+            return ResponseEntity.ok(productBulkDeleteService.deleteProducts(deleteDto));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // Marca Prodotto come Venduto (PUT /api/products/{productId}/mark-sold)
+    // Se il prodotto è già venduto (anche da una richiesta concorrente) la risposta è 409 Conflict
     @PutMapping("/{productId}/mark-sold")
     public ResponseEntity<ProductResponseDTO> markProductAsSold(
             @PathVariable Long productId,
@@ -106,16 +340,54 @@ public class ProductController {
         }
     }
 
+    /**
+     * Vendita di più prodotti alla cassa (POST /api/products/checkout).
+     * Tutti i prodotti vengono marcati come venduti, oppure nessuno: se uno è già venduto la risposta è 409 Conflict
+     * con gli ID in conflitto nei dettagli.
+     *
+     * @return Lo scontrino con prezzi, commissioni e totali.
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutReceiptResponseDTO> checkout(@Valid @RequestBody CheckoutRequestDTO checkoutDto) {
+        try {
+            CheckoutReceiptResponseDTO receipt = productCheckoutService.checkout(checkoutDto);
+            return new ResponseEntity<>(receipt, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * Statistiche Prodotti (GET /api/products/statistics)
      * Ora accetta un userId opzionale per filtrare le statistiche per proprietario.
      * @param userId L'ID dell'utente proprietario (opzionale).
+     * @param breakdown Dettagli aggiuntivi (opzionale): "category" e/o "month", es. ?breakdown=category,month
      * @return ProductStatisticsResponseDTO.
      */
     @GetMapping("/statistics")
-    public ResponseEntity<ProductStatisticsResponseDTO> getProductStatistics(@RequestParam(required = false) Long userId) {
-        ProductStatisticsResponseDTO stats = productService.getProductStatistics(userId);
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<ProductStatisticsResponseDTO> getProductStatistics(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) List<String> breakdown,
+            WebRequest request) {
+        String eTag = catalogVersionService.statisticsETag(userId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        boolean byCategory = breakdown != null && breakdown.stream().anyMatch("category"::equalsIgnoreCase);
+        boolean byMonth = breakdown != null && breakdown.stream().anyMatch("month"::equalsIgnoreCase);
+        ProductStatisticsResponseDTO stats = productService.getProductStatistics(userId, byCategory, byMonth);
+        return ConditionalGet.ok(eTag, stats);
+    }
+
+    /**
+     * Ricalcola il read model delle statistiche a partire dalla tabella products (POST /api/products/statistics/rebuild).
+     * Da usare per riconciliare i contatori, ad esempio dopo modifiche fatte direttamente sul database.
+     * @return Le statistiche globali ricalcolate.
+     */
+    @PostMapping("/statistics/rebuild")
+    @PreAuthorize("hasRole('SUPERUSER')")
+    public ResponseEntity<ProductStatisticsResponseDTO> rebuildProductStatistics() {
+        return ResponseEntity.ok(productStatisticsService.rebuild());
     }
 
     /**
@@ -146,10 +418,14 @@ public class ProductController {
      * @return Una lista di ProductPriceResponseDTO.
      */
     @GetMapping("/{id}/price-history")
-    public ResponseEntity<List<ProductPriceResponseDTO>> getProductPriceHistory(@PathVariable Long id) {
+    public ResponseEntity<List<ProductPriceResponseDTO>> getProductPriceHistory(@PathVariable Long id, WebRequest request) {
+        String eTag = catalogVersionService.productsETag(null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         try {
             List<ProductPriceResponseDTO> priceHistory = productService.getProductPriceHistory(id);
-            return new ResponseEntity<>(priceHistory, HttpStatus.OK);
+            return ConditionalGet.ok(eTag, priceHistory);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
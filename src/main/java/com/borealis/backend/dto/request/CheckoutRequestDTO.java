@@ -0,0 +1,20 @@
+package com.borealis.backend.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequestDTO {
+    @NotNull(message = "L'ID del venditore è obbligatorio")
+    private Long sellerId; // L'utente che registra la vendita alla cassa
+
+    @NotEmpty(message = "La lista dei prodotti non può essere vuota")
+    private List<@NotNull Long> productIds;
+}
@@ -0,0 +1,18 @@
+package com.borealis.backend.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequestDTO {
+    // Gli elementi non sono annotati con @Valid: vengono validati uno per uno e quelli non validi
+    // compaiono come errori nella risposta, senza bloccare l'inserimento degli altri
+    @NotEmpty(message = "La lista dei prodotti non può essere vuota")
+    private List<ProductRequestDTO> items;
+}
@@ -0,0 +1,25 @@
+package com.borealis.backend.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Criteri di eliminazione in blocco: gli ID indicati e/o un filtro. Tutti i campi valorizzati devono essere soddisfatti
+ * (es. ownerId + status "SOLD" + soldBefore = tutti i prodotti venduti di un proprietario prima di una data).
+ * Almeno un criterio è obbligatorio, per non eliminare per errore l'intero catalogo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkDeleteRequestDTO {
+    private List<Long> productIds;
+    private Long ownerId;
+    private Long categoryId;
+    private String status; // "SOLD" o "AVAILABLE", come in GET /api/products/filter
+    private LocalDate soldBefore; // Data di vendita precedente a questa (esclusa)
+    private LocalDate insertedBefore; // Data di inserimento precedente a questa (esclusa)
+}
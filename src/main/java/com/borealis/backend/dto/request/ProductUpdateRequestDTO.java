@@ -31,4 +31,6 @@ public class ProductUpdateRequestDTO {
 
     private Boolean sold; // <<<<<<<<<<<< AGGIUNTO: Per permettere il cambio di stato venduto/disponibile
     // Usiamo Boolean per distinguere tra non fornito e false esplicito
+
+    private Long version; // Opzionale: la versione letta dal client. Se non corrisponde più, l'aggiornamento fallisce con 409
 }
@@ -23,5 +23,5 @@ public class UserCreationRequestDTO {
     private String password;
 
     // Campo per specificare i ruoli quando un admin crea un utente
-    private Set<String> roles; // Sarà usato per assegnare ROLE_USER o ROLE_SUPERUSER
+    private Set<String> roles; // Sarà usato per assegnare ROLE_USER, ROLE_SUPERUSER o ROLE_OPS
 }
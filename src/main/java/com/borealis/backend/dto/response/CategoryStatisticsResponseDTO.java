@@ -0,0 +1,20 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStatisticsResponseDTO {
+    private Long categoryId;
+    private String categoryName;
+    private long totalItems;
+    private long soldItems;
+    private long availableItems;
+    private BigDecimal totalRevenue;
+    private BigDecimal potentialRevenue;
+}
@@ -0,0 +1,18 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutItemResponseDTO {
+    private Long productId;
+    private String description;
+    private Long ownerId;
+    private BigDecimal price;
+    private BigDecimal sellerCommissionAmount;
+}
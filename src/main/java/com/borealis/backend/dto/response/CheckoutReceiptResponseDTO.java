@@ -0,0 +1,22 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutReceiptResponseDTO {
+    private Long sellerId;
+    private String sellerName;
+    private LocalDate saleDate;
+    private List<CheckoutItemResponseDTO> items; // Nello stesso ordine della richiesta
+    private int itemCount;
+    private BigDecimal totalAmount; // Somma dei prezzi
+    private BigDecimal totalCommission; // Somma delle commissioni del venditore
+}
@@ -0,0 +1,17 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponseDTO<T> {
+    private List<T> content;
+    private int size; // Dimensione di pagina richiesta
+    private boolean hasNext;
+    private String nextCursor; // Da passare come 'cursor' per la pagina successiva, null se non ci sono altre pagine
+}
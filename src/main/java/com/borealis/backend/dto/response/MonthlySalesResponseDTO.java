@@ -0,0 +1,17 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlySalesResponseDTO {
+    private int year;
+    private int month; // 1-12
+    private long soldItems;
+    private BigDecimal totalRevenue;
+}
@@ -0,0 +1,32 @@
+package com.borealis.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lista di prodotti in formato normalizzato (?view=normalized): ogni utente e ogni categoria compare una sola volta
+ * nei dizionari, indicizzati per ID, invece di essere ripetuto in ogni prodotto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NormalizedProductListResponseDTO {
+    private List<NormalizedProductResponseDTO> products;
+    private Map<Long, UserResponseDTO> users; // Proprietari e venditori dei prodotti della risposta
+    private Map<Long, CategoryResponseDTO> categories;
+
+    // Presenti solo con la paginazione a cursore, come in CursorPageResponseDTO
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer size;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasNext;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+}
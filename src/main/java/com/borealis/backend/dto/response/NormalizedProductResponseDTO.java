@@ -0,0 +1,30 @@
+package com.borealis.backend.dto.response;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Prodotto nel formato normalizzato delle liste: al posto di owner, seller e category ci sono solo i loro ID,
+ * da risolvere nei dizionari 'users' e 'categories' di NormalizedProductListResponseDTO.
+ */
+@Data
+public class NormalizedProductResponseDTO {
+    private Long id;
+    private String description;
+    private BigDecimal currentPrice;
+    private LocalDate insertionDate;
+    private LocalDate saleDate;
+    private boolean sold;
+    private String size;
+    private String brand;
+    private String composition;
+    private String gender;
+
+    private Long ownerId;
+    private Long sellerId; // null se il prodotto non è venduto
+    private Long categoryId;
+    private Double sellerCommissionAmount;
+    private Long version;
+}
@@ -0,0 +1,17 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchItemResultDTO {
+    private int index; // Posizione dell'elemento nella richiesta
+    private boolean success;
+    private Long productId; // ID del prodotto creato, null in caso di errore
+    private List<String> errors; // Motivi del rifiuto, null in caso di successo
+}
@@ -0,0 +1,16 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponseDTO {
+    private int created;
+    private int failed;
+    private List<ProductBatchItemResultDTO> results; // Un risultato per ogni elemento, nello stesso ordine della richiesta
+}
@@ -0,0 +1,14 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkDeleteResponseDTO {
+    private long deletedProducts;
+    private long deletedPrices; // Righe dello storico prezzi eliminate
+    private int chunks; // Numero di transazioni eseguite
+}
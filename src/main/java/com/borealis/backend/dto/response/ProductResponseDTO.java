@@ -22,6 +22,7 @@ public class ProductResponseDTO {
     private UserResponseDTO seller; // Un DTO semplificato per l'utente venditore (se presente)
     private Double sellerCommissionAmount; // Ammontare della commissione
     private CategoryResponseDTO category; // Un DTO semplificato per la categoria
+    private Long version; // Da rimandare in ProductUpdateRequestDTO per rilevare modifiche concorrenti
 
     // Non esponi direttamente la priceHistory a meno che non sia richiesto specificamente da un endpoint
     // private List<ProductPriceResponseDTO> priceHistory;
@@ -0,0 +1,19 @@
+package com.borealis.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponseDTO {
+    private String query;
+    private List<ProductResponseDTO> content; // In ordine di rilevanza decrescente
+    private int page; // Numero di pagina, a partire da 0
+    private int size;
+    private long totalHits; // Numero totale di prodotti trovati
+    private boolean hasNext;
+}
@@ -1,10 +1,12 @@
 package com.borealis.backend.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal; // Importa BigDecimal per una maggiore precisione con la valuta
+import java.util.List;
 
 @Data // Questa annotazione genera getter, setter, toString, equals e hashCode
 @NoArgsConstructor // Genera un costruttore senza argomenti
@@ -15,4 +17,15 @@ public class ProductStatisticsResponseDTO {
     private long availableItems;
     private BigDecimal totalRevenue;
     private BigDecimal potentialRevenue;
-}
\ No newline at end of file
+
+    // Dettagli opzionali, presenti nella risposta solo se richiesti con il parametro 'breakdown'
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<CategoryStatisticsResponseDTO> byCategory;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<MonthlySalesResponseDTO> byMonth;
+
+    public ProductStatisticsResponseDTO(long totalItems, long soldItems, long availableItems, BigDecimal totalRevenue, BigDecimal potentialRevenue) {
+        this(totalItems, soldItems, availableItems, totalRevenue, potentialRevenue, null, null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.borealis.backend.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Pubblicato dalle scritture sui prodotti, all'interno della transazione che le esegue.
+ * I listener che devono vedere solo dati confermati usano @TransactionalEventListener (AFTER_COMMIT).
+ */
+@Getter
+public class ProductsChangedEvent {
+
+    private final Collection<Long> changedIds; // Prodotti creati o modificati
+    private final Collection<Long> deletedIds; // Prodotti eliminati
+
+    public ProductsChangedEvent(Collection<Long> changedIds, Collection<Long> deletedIds) {
+        this.changedIds = List.copyOf(changedIds);
+        this.deletedIds = List.copyOf(deletedIds);
+    }
+
+    public static ProductsChangedEvent changed(Long productId) {
+        return new ProductsChangedEvent(List.of(productId), List.of());
+    }
+
+    public static ProductsChangedEvent deleted(Collection<Long> productIds) {
+        return new ProductsChangedEvent(List.of(), productIds);
+    }
+}
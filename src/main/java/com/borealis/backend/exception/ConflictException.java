@@ -0,0 +1,26 @@
+package com.borealis.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    private final List<String> details; // Es. gli ID dei prodotti in conflitto
+
+    // Costruttore che accetta un messaggio per l'eccezione
+    public ConflictException(String message) {
+        this(message, null);
+    }
+
+    public ConflictException(String message, List<String> details) {
+        super(message);
+        this.details = details;
+    }
+
+    public List<String> getDetails() {
+        return details;
+    }
+}
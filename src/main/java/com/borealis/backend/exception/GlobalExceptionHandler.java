@@ -1,8 +1,11 @@
 package com.borealis.backend.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -32,6 +35,52 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
+    // Gestisce ConflictException (409 Conflict - la risorsa è stata modificata nel frattempo, es. prodotto già venduto)
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflictException(ConflictException ex, WebRequest request) {
+        ErrorResponse error = new ErrorResponse(LocalDateTime.now(), HttpStatus.CONFLICT.value(),
+                "Conflict", ex.getMessage(), request.getDescription(false), ex.getDetails());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    // Gestisce i conflitti rilevati da @Version (409 Conflict - il record è stato modificato da un'altra transazione)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, WebRequest request) {
+        ErrorResponse error = new ErrorResponse(LocalDateTime.now(), HttpStatus.CONFLICT.value(),
+                "Conflict", "Il record è stato modificato da un'altra operazione. Ricarica e riprova.", request.getDescription(false), null);
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    // Gestisce TooManyRequestsException (429 Too Many Requests - limite di tentativi superato)
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+        ErrorResponse error = new ErrorResponse(LocalDateTime.now(), HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests", ex.getMessage(), request.getDescription(false), null);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    // Gestisce ServiceBusyException (503 Service Unavailable - risorsa satura, es. pool degli hash delle password)
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusyException(ServiceBusyException ex, WebRequest request) {
+        ErrorResponse error = new ErrorResponse(LocalDateTime.now(), HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable", ex.getMessage(), request.getDescription(false), null);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    // Gestisce CannotCreateTransactionException (503 Service Unavailable - nessuna connessione al database disponibile)
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ErrorResponse> handleCannotCreateTransactionException(CannotCreateTransactionException ex, WebRequest request) {
+        ErrorResponse error = new ErrorResponse(LocalDateTime.now(), HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable", "Il database è momentaneamente sovraccarico. Riprova tra poco.", request.getDescription(false), null);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     // Gestisce AccessDeniedException (403 Forbidden - autenticato ma non autorizzato)
     // Se non usi CustomAccessDeniedHandler in SecurityConfig, questo metodo la copre
     @ExceptionHandler(AccessDeniedException.class)
@@ -0,0 +1,23 @@
+package com.borealis.backend.mapper;
+
+import com.borealis.backend.dto.request.CategoryRequestDTO;
+import com.borealis.backend.dto.response.CategoryResponseDTO;
+import com.borealis.backend.model.Category;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CategoryMapper {
+
+    CategoryResponseDTO toResponse(Category category);
+
+    List<CategoryResponseDTO> toResponseList(List<Category> categories);
+
+    @Mapping(target = "id", ignore = true) // L'ID è generato dal database
+    @Mapping(target = "products", ignore = true)
+    Category toEntity(CategoryRequestDTO categoryDto);
+}
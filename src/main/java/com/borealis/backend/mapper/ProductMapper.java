@@ -0,0 +1,54 @@
+package com.borealis.backend.mapper;
+
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.response.NormalizedProductResponseDTO;
+import com.borealis.backend.dto.response.ProductResponseDTO;
+import com.borealis.backend.model.Product;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * Mapping tra Product e i suoi DTO, generato a compile-time da MapStruct.
+ * Owner e seller passano da UserMapper, la categoria da CategoryMapper.
+ */
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR, unmappedTargetPolicy = ReportingPolicy.ERROR,
+        uses = {UserMapper.class, CategoryMapper.class})
+public interface ProductMapper {
+
+    ProductResponseDTO toResponse(Product product);
+
+    List<ProductResponseDTO> toResponseList(List<Product> products);
+
+    // Per i prodotti con la categoria non ancora caricata: il service la prende dalla cache invece di inizializzare il proxy
+    @Named("withoutCategory") // Con il qualificatore MapStruct non lo usa al posto di toResponse nelle liste
+    @Mapping(target = "category", ignore = true)
+    ProductResponseDTO toResponseWithoutCategory(Product product);
+
+    // Solo gli ID delle associazioni: su un proxy non inizializzato getId() non esegue query,
+    // quindi i prodotti possono essere letti senza join su owner, seller e category
+    @Mapping(target = "ownerId", source = "owner.id")
+    @Mapping(target = "sellerId", source = "seller.id")
+    @Mapping(target = "categoryId", source = "category.id")
+    NormalizedProductResponseDTO toNormalizedResponse(Product product);
+
+    List<NormalizedProductResponseDTO> toNormalizedResponseList(List<Product> products);
+
+    // Come la vecchia configurazione di ModelMapper: l'ID è generato dal database,
+    // owner e category vengono risolti dal service a partire da ownerId e categoryId.
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "seller", ignore = true)
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "sellerCommissionAmount", ignore = true)
+    @Mapping(target = "insertionDate", ignore = true)
+    @Mapping(target = "saleDate", ignore = true)
+    @Mapping(target = "sold", ignore = true)
+    @Mapping(target = "priceHistory", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Product toEntity(ProductRequestDTO productDto);
+}
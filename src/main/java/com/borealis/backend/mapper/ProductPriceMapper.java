@@ -0,0 +1,17 @@
+package com.borealis.backend.mapper;
+
+import com.borealis.backend.dto.response.ProductPriceResponseDTO;
+import com.borealis.backend.model.ProductPrice;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ProductPriceMapper {
+
+    ProductPriceResponseDTO toResponse(ProductPrice productPrice);
+
+    List<ProductPriceResponseDTO> toResponseList(List<ProductPrice> priceHistory);
+}
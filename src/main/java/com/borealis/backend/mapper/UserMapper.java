@@ -0,0 +1,17 @@
+package com.borealis.backend.mapper;
+
+import com.borealis.backend.dto.response.UserResponseDTO;
+import com.borealis.backend.model.User;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface UserMapper {
+
+    UserResponseDTO toResponse(User user); // La password e le liste di prodotti non vengono esposte
+
+    List<UserResponseDTO> toResponseList(List<User> users);
+}
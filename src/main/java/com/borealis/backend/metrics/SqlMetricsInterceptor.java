@@ -0,0 +1,59 @@
+package com.borealis.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra per ogni endpoint il numero di statement SQL eseguiti da Hibernate e il tempo speso sul database:
+ * - borealis.sql.statements (distribuzione degli statement per richiesta)
+ * - borealis.sql.time (tempo SQL complessivo per richiesta)
+ * con i tag method e uri (il pattern della mapping, es. /api/products/{id}).
+ */
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementListener.beginRequest();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementListener.RequestTotals totals = SqlStatementListener.endRequest();
+        if (totals == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("borealis.sql.statements")
+                .description("Statement SQL eseguiti da Hibernate per richiesta")
+                .tags("method", request.getMethod(), "uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(totals.getStatements());
+        Timer.builder("borealis.sql.time")
+                .description("Tempo speso nell'esecuzione di statement SQL per richiesta")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(totals.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Richieste asincrone (es. export in streaming): il resto dell'elaborazione avviene su un altro thread
+        SqlStatementListener.endRequest();
+    }
+}
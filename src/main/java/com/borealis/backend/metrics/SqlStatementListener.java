@@ -0,0 +1,70 @@
+package com.borealis.backend.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Conta gli statement JDBC eseguiti da Hibernate e il tempo speso ad eseguirli, per la richiesta HTTP in corso.
+ * Hibernate crea un'istanza per ogni sessione (hibernate.session.events.auto, vedi MetricsConfig);
+ * i totali vengono accumulati nella richiesta aperta da SqlMetricsInterceptor sullo stesso thread.
+ */
+public class SqlStatementListener implements SessionEventListener {
+
+    private static final ThreadLocal<RequestTotals> CURRENT = new ThreadLocal<>();
+
+    private long statementStart;
+    private long batchStart;
+
+    /**
+     * Totali di una richiesta.
+     */
+    public static final class RequestTotals {
+        private long statements;
+        private long nanos;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    static void beginRequest() {
+        CURRENT.set(new RequestTotals());
+    }
+
+    static RequestTotals endRequest() {
+        RequestTotals totals = CURRENT.get();
+        CURRENT.remove();
+        return totals;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(long start) {
+        RequestTotals totals = CURRENT.get();
+        if (totals != null) {
+            totals.statements++;
+            totals.nanos += System.nanoTime() - start;
+        }
+    }
+}
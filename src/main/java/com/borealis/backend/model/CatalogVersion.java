@@ -0,0 +1,25 @@
+package com.borealis.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contatore di versione di una parte del catalogo (prodotti, prodotti di un proprietario, categorie, utenti).
+ * Viene incrementato nella stessa transazione delle scritture (vedi CatalogVersionService).
+ */
+@Entity
+@Table(name = "catalog_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    @Id
+    @Column(name = "name", length = 40)
+    private String name;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+}
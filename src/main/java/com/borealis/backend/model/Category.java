@@ -3,15 +3,19 @@ package com.borealis.backend.model;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "categories")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Category {
@@ -25,5 +29,23 @@ public class Category {
 
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference("category-products") // NOME UNICO PER QUESTA RELAZIONE
+    @ToString.Exclude
     private List<Product> products = new ArrayList<>();
-}
\ No newline at end of file
+
+    // Uguaglianza per ID come in Product: nessuna query sui prodotti della categoria
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((Category) o).getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return Entities.effectiveClass(this).hashCode();
+    }
+}
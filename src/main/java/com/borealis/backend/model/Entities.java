@@ -0,0 +1,20 @@
+package com.borealis.backend.model;
+
+import org.hibernate.proxy.HibernateProxy;
+
+/**
+ * Supporto all'uguaglianza delle entità basata sull'ID.
+ * Un proxy lazy di Hibernate è una sottoclasse generata dell'entità: per confrontarlo con l'istanza reale serve la classe
+ * persistente, che il proxy conosce senza essere inizializzato (nessuna query).
+ */
+final class Entities {
+
+    private Entities() {
+    }
+
+    static Class<?> effectiveClass(Object entity) {
+        return entity instanceof HibernateProxy proxy
+                ? proxy.getHibernateLazyInitializer().getPersistentClass()
+                : entity.getClass();
+    }
+}
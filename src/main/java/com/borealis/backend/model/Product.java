@@ -5,8 +5,11 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,7 +19,9 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
@@ -28,11 +33,13 @@ public class Product {
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "owner_id", nullable = false)
     @JsonBackReference("user-owned-products")
+    @ToString.Exclude
     private User owner;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
     @JsonBackReference("user-sold-products")
+    @ToString.Exclude
     private User seller;
 
     @Column(name = "seller_commission_amount")
@@ -41,6 +48,7 @@ public class Product {
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "category_id", nullable = false)
     @JsonBackReference("category-products")
+    @ToString.Exclude
     private Category category;
 
     @Column(name = "description", length = 500)
@@ -71,10 +79,18 @@ public class Product {
     @Column(name = "sold", nullable = false)
     private boolean sold = false;
 
+    // Versione per il locking ottimistico: ogni modifica la incrementa, e una modifica basata su una versione
+    // ormai superata fallisce invece di sovrascrivere quella concorrente. Il default serve per le righe esistenti.
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Questa è la lista della cronologia dei prezzi. Essenziale!
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("modificationDate DESC")
     @JsonManagedReference("product-prices")
+    @ToString.Exclude
     private List<ProductPrice> priceHistory = new ArrayList<>();
 
     // Metodo per aggiungere un nuovo prezzo alla cronologia e aggiornare il prezzo corrente del prodotto
@@ -93,4 +109,24 @@ public class Product {
         this.setSaleDate(LocalDate.now());
         this.setSeller(seller);
     }
-}
\ No newline at end of file
+
+    // Identità basata sull'ID, non sui campi: equals e hashCode non toccano le associazioni lazy, quindi non eseguono
+    // query e non ricorrono nel grafo User -> Product -> ProductPrice. Un prodotto non ancora salvato è uguale solo
+    // a sé stesso, e l'hashCode per classe resta stabile quando il salvataggio assegna l'ID (anche dentro un HashSet).
+    // Sono final e passano da getId(), così funzionano anche su un proxy non inizializzato senza caricarlo.
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((Product) o).getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return Entities.effectiveClass(this).hashCode();
+    }
+}
@@ -3,15 +3,19 @@ package com.borealis.backend.model;
 import com.fasterxml.jackson.annotation.JsonBackReference; // IMPORTANTE: NON DIMENTICARE QUESTA LINEA
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "product_prices")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor // <-- Mantienilo
 public class ProductPrice {
@@ -25,6 +29,7 @@ public class ProductPrice {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     @JsonBackReference("product-prices") // <-- ASSICURATI CHE CI SIA E ABBIA IL NOME CORRETTO
+    @ToString.Exclude
     private Product product;
 
     @Column(name = "price", nullable = false, precision = 10, scale = 2)
@@ -39,4 +44,21 @@ public class ProductPrice {
         this.price = price;
         this.modificationDate = modificationDate;
     }
-}
\ No newline at end of file
+
+    // Uguaglianza per ID come in Product: nessun accesso al prodotto lazy
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((ProductPrice) o).getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return Entities.effectiveClass(this).hashCode();
+    }
+}
@@ -0,0 +1,43 @@
+package com.borealis.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model delle statistiche prodotti: una riga per proprietario più una riga globale (ownerKey = 0).
+ * Viene aggiornata nella stessa transazione delle scritture su Product (vedi ProductStatisticsService),
+ * così la lettura delle statistiche è una semplice lookup per chiave primaria.
+ */
+@Entity
+@Table(name = "product_statistics")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStatistics {
+
+    public static final long GLOBAL_KEY = 0L; // Chiave della riga con i totali di tutti i prodotti
+
+    @Id
+    @Column(name = "owner_key")
+    private Long ownerKey; // ID del proprietario, oppure GLOBAL_KEY
+
+    @Column(name = "total_items", nullable = false)
+    private long totalItems;
+
+    @Column(name = "sold_items", nullable = false)
+    private long soldItems;
+
+    @Column(name = "total_revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalRevenue;
+
+    @Column(name = "potential_revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal potentialRevenue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
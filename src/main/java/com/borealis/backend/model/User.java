@@ -2,9 +2,12 @@ package com.borealis.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.HashSet; // Importa HashSet
@@ -13,7 +16,9 @@ import java.util.Set; // Importa Set
 
 @Entity
 @Table(name = "users") // La tabella nel database si chiamerà 'users'
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor // Lombok: genera costruttore senza argomenti
 @AllArgsConstructor // Lombok: genera costruttore con tutti gli argomenti
 public class User {
@@ -29,6 +34,7 @@ public class User {
     private String email;
 
     @Column(name = "password", nullable = false) // La password non deve essere nulla
+    @ToString.Exclude
     private String password; // Password codificata (non in chiaro!)
 
     // Gestione dei ruoli: useremo un Set di stringhe per i nomi dei ruoli
@@ -36,18 +42,21 @@ public class User {
     @ElementCollection(fetch = FetchType.EAGER) // Carica i ruoli insieme all'utente
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id")) // Tabella di join
     @Column(name = "role_name") // Colonna per il nome del ruolo nella tabella user_roles
+    @BatchSize(size = 100) // Nelle liste di prodotti i ruoli di proprietari e venditori vengono caricati con un'unica query IN
     private Set<String> roles = new HashSet<>(); // Inizializza con un HashSet vuoto
 
     // Prodotti di proprietà di questo utente (quelli che ha inserito)
     // 'mappedBy' indica il nome del campo nell'entità Product che si riferisce a questo User come 'owner'
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference("user-owned-products") // Nome per gestire la serializzazione JSON
+    @ToString.Exclude
     private List<Product> ownedProducts = new ArrayList<>();
 
     // Prodotti che questo utente ha venduto
     // 'mappedBy' indica il nome del campo nell'entità Product che si riferisce a questo User come 'seller'
     @OneToMany(mappedBy = "seller", fetch = FetchType.LAZY)
     @JsonManagedReference("user-sold-products") // Nome per gestire la serializzazione JSON
+    @ToString.Exclude
     private List<Product> soldProducts = new ArrayList<>();
 
 
@@ -65,4 +74,21 @@ public class User {
     public void addRole(String role) {
         this.roles.add(role);
     }
-}
\ No newline at end of file
+
+    // Uguaglianza per ID come in Product: nessuna query sulle liste di prodotti
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((User) o).getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return Entities.effectiveClass(this).hashCode();
+    }
+}
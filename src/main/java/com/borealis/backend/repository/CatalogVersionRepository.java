@@ -0,0 +1,23 @@
+package com.borealis.backend.repository;
+
+import com.borealis.backend.model.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, String> {
+
+    // Incremento atomico lato database: blocca la riga fino al commit della scrittura
+    @Modifying
+    @Query("update CatalogVersion v set v.version = v.version + 1 where v.name = :name")
+    int increment(@Param("name") String name);
+
+    // Forma portabile (PostgreSQL e H2) di "insert ... on conflict do nothing"
+    @Modifying
+    @Query(value = "insert into catalog_versions (name, version) select :name, 0"
+            + " where not exists (select 1 from catalog_versions where name = :name)", nativeQuery = true)
+    void insertIfAbsent(@Param("name") String name);
+}
@@ -0,0 +1,26 @@
+package com.borealis.backend.repository;
+
+import com.borealis.backend.Enum.ProductField;
+import com.borealis.backend.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Letture parziali dei prodotti (sparse fieldset): la select contiene solo le colonne dei campi richiesti.
+ * Frammento di ProductRepository, implementato in ProductFieldRepositoryImpl.
+ */
+public interface ProductFieldRepository {
+
+    /**
+     * @param fields I campi da leggere. Per owner, seller e category il valore è l'ID (null se assente).
+     * @param spec Il filtro, come per findAll(Specification). Non deve contenere fetch join.
+     * @param sort L'ordinamento, Sort.unsorted() per nessuno.
+     * @param limit Il numero massimo di righe, null per nessun limite.
+     * @return Una mappa per prodotto, con il nome del campo (ProductField.getProperty) come chiave.
+     */
+    List<Map<String, Object>> findFields(Set<ProductField> fields, Specification<Product> spec, Sort sort, Integer limit);
+}
@@ -0,0 +1,66 @@
+package com.borealis.backend.repository;
+
+import com.borealis.backend.Enum.ProductField;
+import com.borealis.backend.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class ProductFieldRepositoryImpl implements ProductFieldRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<ProductField> fields, Specification<Product> spec, Sort sort, Integer limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (ProductField field : fields) {
+            // Per le associazioni basta la chiave esterna: Hibernate legge owner_id, seller_id e category_id senza join
+            selections.add((field.isAssociation() ? root.get(field.getProperty()).get("id") : root.get(field.getProperty()))
+                    .alias(field.getProperty()));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        List<Tuple> tuples = typedQuery.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (ProductField field : fields) {
+                row.put(field.getProperty(), tuple.get(field.getProperty()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -2,10 +2,20 @@ package com.borealis.backend.repository;
 
 import com.borealis.backend.model.ProductPrice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface ProductPriceRepository extends JpaRepository<ProductPrice, Long> {
     // Questo repository servirà per gestire i record della cronologia dei prezzi
     // Non avremo bisogno di manipolarli direttamente tramite API, dato che sono gestiti da Product
+
+    // Eliminazione set-based dello storico prezzi, da eseguire prima di eliminare i prodotti con ProductRepository.deleteByIds
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ProductPrice pp where pp.product.id in :productIds")
+    int deleteByProductIds(@Param("productIds") Collection<Long> productIds);
 }
@@ -3,15 +3,132 @@ package com.borealis.backend.repository;
 import com.borealis.backend.model.Category;
 import com.borealis.backend.model.User;
 import com.borealis.backend.model.Product;
+import com.borealis.backend.repository.projection.CategoryStatisticsView;
+import com.borealis.backend.repository.projection.MonthlySalesView;
+import com.borealis.backend.repository.projection.OwnerStatisticsView;
+import com.borealis.backend.repository.projection.ProductSearchDocument;
+import com.borealis.backend.repository.projection.ProductStatisticsView;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Aggiungi questa import
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.LockModeType;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductFieldRepository {
+
     List<Product> findByOwner(User user);
     List<Product> findByCategory(Category category);
+
+    // Le letture di liste caricano owner, seller e category in join: il mapping verso ProductResponseDTO
+    // li legge tutti, e senza fetch plan ogni riga scatenerebbe query aggiuntive (N+1).
+    // Grafo di tipo LOAD: i ruoli degli utenti restano EAGER e vengono caricati in batch (vedi User.roles).
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"owner", "seller", "category"})
     List<Product> findByOwnerId(Long ownerId);
-}
\ No newline at end of file
+
+    @Override
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"owner", "seller", "category"})
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"owner", "seller", "category"})
+    List<Product> findAll(Specification<Product> spec);
+
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"owner", "seller", "category"})
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    // Lettura con lock di scrittura, per le modifiche che aggiornano poi il read model delle statistiche
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    // --- Lock delle righe da eliminare: select ... for update in ordine di ID, lo stesso per tutte le eliminazioni ---
+
+    @Query(value = "select p.id from products p where p.id in :ids order by p.id for update", nativeQuery = true)
+    List<Long> lockIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select p.id from products p where p.owner_id = :ownerId order by p.id for update", nativeQuery = true)
+    List<Long> lockIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(value = "select p.id from products p where p.category_id = :categoryId order by p.id for update", nativeQuery = true)
+    List<Long> lockIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Vendita atomica: le condizioni "sold = false" e "version = :version" sono verificate dal database nello stesso
+    // statement, quindi di due vendite concorrenti dello stesso prodotto solo una modifica la riga (l'altra restituisce 0),
+    // e la vendita non va a buon fine se prezzo o proprietario sono cambiati dopo la lettura della versione indicata
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.sold = true, p.saleDate = :saleDate, p.seller = :seller,"
+            + " p.sellerCommissionAmount = :commission, p.version = p.version + 1"
+            + " where p.id = :id and p.sold = false and p.version = :version")
+    int markAsSoldIfAvailable(@Param("id") Long id, @Param("version") Long version, @Param("seller") User seller,
+                              @Param("saleDate") LocalDate saleDate, @Param("commission") Double commission);
+
+    // Eliminazione set-based: un solo statement invece di caricare ogni prodotto e il suo storico prezzi.
+    // Lo storico va eliminato prima con ProductPriceRepository.deleteByProductIds
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // --- Ricerca: solo i campi testuali indicizzati, senza caricare le entità ---
+
+    String SEARCH_DOCUMENT_COLUMNS = "p.id as id, p.description as description, p.brand as brand, p.composition as composition";
+
+    @Query("select " + SEARCH_DOCUMENT_COLUMNS + " from Product p")
+    List<ProductSearchDocument> findAllSearchDocuments();
+
+    @Query("select " + SEARCH_DOCUMENT_COLUMNS + " from Product p where p.id in :ids")
+    List<ProductSearchDocument> findSearchDocumentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // --- Statistiche: aggregazioni calcolate dal database con una sola query ciascuna ---
+
+    String STATISTICS_COLUMNS = """
+            count(p) as totalItems,
+            coalesce(sum(case when p.sold = true then 1 else 0 end), 0) as soldItems,
+            coalesce(sum(case when p.sold = true then p.currentPrice else 0 end), 0) as totalRevenue,
+            coalesce(sum(case when p.sold = false then p.currentPrice else 0 end), 0) as potentialRevenue
+            """;
+
+    String MONTHLY_SALES_COLUMNS = """
+            year(p.saleDate) as year, month(p.saleDate) as month,
+            count(p) as soldItems, coalesce(sum(p.currentPrice), 0) as totalRevenue
+            """;
+
+    @Query("select " + STATISTICS_COLUMNS + " from Product p")
+    ProductStatisticsView aggregateStatistics();
+
+    @Query("select " + STATISTICS_COLUMNS + " from Product p where p.owner.id = :ownerId")
+    ProductStatisticsView aggregateStatisticsByOwner(@Param("ownerId") Long ownerId);
+
+    // Contributo di un insieme di prodotti alle statistiche di ciascun proprietario (usato prima delle eliminazioni multiple)
+    @Query("select p.owner.id as ownerId, " + STATISTICS_COLUMNS + " from Product p where p.id in :ids group by p.owner.id")
+    List<OwnerStatisticsView> aggregateStatisticsByOwnerForIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.owner.id as ownerId, " + STATISTICS_COLUMNS + " from Product p where p.category.id = :categoryId group by p.owner.id")
+    List<OwnerStatisticsView> aggregateStatisticsByOwnerForCategory(@Param("categoryId") Long categoryId);
+
+    @Query("select c.id as categoryId, c.name as categoryName, " + STATISTICS_COLUMNS
+            + " from Product p join p.category c group by c.id, c.name order by c.name")
+    List<CategoryStatisticsView> aggregateStatisticsByCategory();
+
+    @Query("select c.id as categoryId, c.name as categoryName, " + STATISTICS_COLUMNS
+            + " from Product p join p.category c where p.owner.id = :ownerId group by c.id, c.name order by c.name")
+    List<CategoryStatisticsView> aggregateStatisticsByCategoryForOwner(@Param("ownerId") Long ownerId);
+
+    @Query("select " + MONTHLY_SALES_COLUMNS + " from Product p where p.sold = true and p.saleDate is not null"
+            + " group by year(p.saleDate), month(p.saleDate) order by year(p.saleDate), month(p.saleDate)")
+    List<MonthlySalesView> aggregateMonthlySales();
+
+    @Query("select " + MONTHLY_SALES_COLUMNS + " from Product p where p.owner.id = :ownerId and p.sold = true and p.saleDate is not null"
+            + " group by year(p.saleDate), month(p.saleDate) order by year(p.saleDate), month(p.saleDate)")
+    List<MonthlySalesView> aggregateMonthlySalesForOwner(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,148 @@
+package com.borealis.backend.repository;
+
+import com.borealis.backend.Enum.ProductSort;
+import com.borealis.backend.model.Product;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specification riutilizzabili per le query sui prodotti.
+ * Raccoglie in un unico punto i filtri di getFilteredProducts e il predicato "seek"
+ * della paginazione a cursore, così tutti gli endpoint filtrano allo stesso modo.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Converte lo stato richiesto ("SOLD" / "AVAILABLE") nel valore del campo 'sold'.
+     * @param status Lo stato, case-insensitive. Qualsiasi altro valore (o null) non filtra.
+     * @return true, false oppure null se lo stato non va filtrato.
+     */
+    public static Boolean parseStatus(String status) {
+        if ("SOLD".equalsIgnoreCase(status)) {
+            return true;
+        }
+        if ("AVAILABLE".equalsIgnoreCase(status)) {
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * Filtro dinamico sui prodotti. I parametri null vengono ignorati.
+     */
+    public static Specification<Product> filter(String description, Long ownerId, Long categoryId, Boolean sold) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (description != null) {
+                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), "%" + description.toLowerCase() + "%"));
+            }
+
+            if (ownerId != null) {
+                predicates.add(criteriaBuilder.equal(root.get("owner").get("id"), ownerId));
+            }
+
+            if (categoryId != null) {
+                predicates.add(criteriaBuilder.equal(root.get("category").get("id"), categoryId));
+            }
+
+            if (sold != null) {
+                predicates.add(criteriaBuilder.equal(root.get("sold"), sold));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Prodotti venduti e/o inseriti prima delle date indicate (esclusa). I parametri null vengono ignorati.
+     * Un prodotto senza data di vendita non è mai "venduto prima" di una data.
+     */
+    public static Specification<Product> before(LocalDate soldBefore, LocalDate insertedBefore) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (soldBefore != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("saleDate"), soldBefore));
+            }
+            if (insertedBefore != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("insertionDate"), insertedBefore));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Limita i risultati ai prodotti che seguono (secondo l'ordinamento indicato) la posizione
+     * (sortValue, lastId) dell'ultimo elemento della pagina precedente.
+     * Con l'indice su (colonna di ordinamento, id) ogni pagina costa come la prima, a qualsiasi profondità.
+     * Nell'ordinamento per prezzo i prodotti senza prezzo vengono esclusi, perché non hanno una posizione stabile.
+     * @param sort L'ordinamento della pagina.
+     * @param sortValue Il valore di ordinamento dell'ultimo elemento (LocalDate o BigDecimal), null per la prima pagina.
+     * @param lastId L'ID dell'ultimo elemento, null per la prima pagina.
+     */
+    public static Specification<Product> seek(ProductSort sort, Comparable<?> sortValue, Long lastId) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (sort.isByPrice()) {
+                predicates.add(criteriaBuilder.isNotNull(root.get("currentPrice")));
+            }
+            if (sortValue != null && lastId != null) {
+                Path<Long> id = root.get("id");
+                if (sort.isByPrice()) {
+                    Path<BigDecimal> price = root.get("currentPrice");
+                    BigDecimal lastPrice = (BigDecimal) sortValue;
+                    predicates.add(sort.isAscending()
+                            ? criteriaBuilder.or(criteriaBuilder.greaterThan(price, lastPrice),
+                                    criteriaBuilder.and(criteriaBuilder.equal(price, lastPrice), criteriaBuilder.greaterThan(id, lastId)))
+                            : criteriaBuilder.or(criteriaBuilder.lessThan(price, lastPrice),
+                                    criteriaBuilder.and(criteriaBuilder.equal(price, lastPrice), criteriaBuilder.lessThan(id, lastId))));
+                } else {
+                    Path<LocalDate> insertionDate = root.get("insertionDate");
+                    LocalDate lastDate = (LocalDate) sortValue;
+                    predicates.add(sort.isAscending()
+                            ? criteriaBuilder.or(criteriaBuilder.greaterThan(insertionDate, lastDate),
+                                    criteriaBuilder.and(criteriaBuilder.equal(insertionDate, lastDate), criteriaBuilder.greaterThan(id, lastId)))
+                            : criteriaBuilder.or(criteriaBuilder.lessThan(insertionDate, lastDate),
+                                    criteriaBuilder.and(criteriaBuilder.equal(insertionDate, lastDate), criteriaBuilder.lessThan(id, lastId))));
+                }
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Carica in join owner, seller e category, come il fetch plan dei metodi findAll di ProductRepository.
+     * Serve per le query costruite con findBy, che non applicano l'@EntityGraph del repository.
+     * Le query di conteggio vengono lasciate invariate, perché non possono contenere fetch join.
+     */
+    public static Specification<Product> fetchListAssociations() {
+        return (root, query, criteriaBuilder) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("owner");
+                root.fetch("seller", JoinType.LEFT);
+                root.fetch("category");
+            }
+            return null;
+        };
+    }
+
+    /**
+     * L'ordinamento Spring Data corrispondente, con l'ID come spareggio.
+     */
+    public static Sort toSort(ProductSort sort) {
+        Sort.Direction direction = sort.isAscending() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String property = sort.isByPrice() ? "currentPrice" : "insertionDate";
+        return Sort.by(new Sort.Order(direction, property), new Sort.Order(direction, "id"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.borealis.backend.repository;
+
+import com.borealis.backend.model.ProductStatistics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProductStatisticsRepository extends JpaRepository<ProductStatistics, Long> {
+
+    // Usato dalla ricostruzione: blocca la riga finché la transazione non termina
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    ProductStatistics findByOwnerKey(Long ownerKey);
+
+    // Incremento atomico lato database: non serve leggere la riga prima di aggiornarla
+    @Modifying
+    @Query("update ProductStatistics s set s.totalItems = s.totalItems + :totalItems, s.soldItems = s.soldItems + :soldItems,"
+            + " s.totalRevenue = s.totalRevenue + :totalRevenue, s.potentialRevenue = s.potentialRevenue + :potentialRevenue,"
+            + " s.updatedAt = :updatedAt where s.ownerKey = :ownerKey")
+    int applyDelta(@Param("ownerKey") Long ownerKey, @Param("totalItems") long totalItems, @Param("soldItems") long soldItems,
+                   @Param("totalRevenue") BigDecimal totalRevenue, @Param("potentialRevenue") BigDecimal potentialRevenue,
+                   @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Forma portabile (PostgreSQL e H2) di "insert ... on conflict do nothing"
+    @Modifying
+    @Query(value = "insert into product_statistics (owner_key, total_items, sold_items, total_revenue, potential_revenue, updated_at)"
+            + " select :ownerKey, 0, 0, 0, 0, current_timestamp"
+            + " where not exists (select 1 from product_statistics where owner_key = :ownerKey)", nativeQuery = true)
+    void insertEmptyIfAbsent(@Param("ownerKey") Long ownerKey);
+
+    @Modifying
+    @Query("delete from ProductStatistics s where s.ownerKey <> " + ProductStatistics.GLOBAL_KEY)
+    void deleteOwnerRows();
+
+    // Ricostruzione set-based delle righe per proprietario a partire dalla tabella products
+    @Modifying
+    @Query(value = "insert into product_statistics (owner_key, total_items, sold_items, total_revenue, potential_revenue, updated_at)"
+            + " select p.owner_id, count(*),"
+            + " coalesce(sum(case when p.sold then 1 else 0 end), 0),"
+            + " coalesce(sum(case when p.sold then p.current_price else 0 end), 0),"
+            + " coalesce(sum(case when p.sold then 0 else p.current_price end), 0),"
+            + " current_timestamp"
+            + " from products p group by p.owner_id", nativeQuery = true)
+    int insertOwnerRowsFromProducts();
+}
@@ -0,0 +1,9 @@
+package com.borealis.backend.repository.projection;
+
+/**
+ * Statistiche aggregate di una singola categoria.
+ */
+public interface CategoryStatisticsView extends ProductStatisticsView {
+    Long getCategoryId();
+    String getCategoryName();
+}
@@ -0,0 +1,13 @@
+package com.borealis.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Vendite aggregate per mese della data di vendita.
+ */
+public interface MonthlySalesView {
+    Integer getYear();
+    Integer getMonth();
+    Long getSoldItems();
+    BigDecimal getTotalRevenue();
+}
@@ -0,0 +1,8 @@
+package com.borealis.backend.repository.projection;
+
+/**
+ * Statistiche aggregate dei prodotti di un singolo proprietario.
+ */
+public interface OwnerStatisticsView extends ProductStatisticsView {
+    Long getOwnerId();
+}
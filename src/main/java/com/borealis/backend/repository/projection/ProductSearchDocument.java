@@ -0,0 +1,15 @@
+package com.borealis.backend.repository.projection;
+
+/**
+ * Campi testuali di un prodotto indicizzati dalla ricerca full-text.
+ */
+public interface ProductSearchDocument {
+
+    Long getId();
+
+    String getDescription();
+
+    String getBrand();
+
+    String getComposition();
+}
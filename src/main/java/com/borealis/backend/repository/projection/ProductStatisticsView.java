@@ -0,0 +1,13 @@
+package com.borealis.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Risultato delle query di aggregazione delle statistiche prodotti (globale o per categoria).
+ */
+public interface ProductStatisticsView {
+    Long getTotalItems();
+    Long getSoldItems();
+    BigDecimal getTotalRevenue(); // Incasso dei prodotti venduti
+    BigDecimal getPotentialRevenue(); // Somma dei prezzi dei prodotti ancora disponibili
+}
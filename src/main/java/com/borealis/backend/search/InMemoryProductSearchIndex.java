@@ -0,0 +1,170 @@
+package com.borealis.backend.search;
+
+import com.borealis.backend.repository.projection.ProductSearchDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indice invertito in memoria: per ogni termine, i prodotti che lo contengono con il relativo peso.
+ * I termini sono in una TreeMap, quindi la ricerca per prefisso è una semplice sotto-mappa ordinata.
+ * Rilevanza: somma su ogni termine della query di peso * idf, dove il peso conta le occorrenze
+ * per campo (description pesa più di brand, che pesa più di composition) e una parola trovata solo per prefisso vale meno di una parola intera.
+ */
+@Component
+@ConditionalOnProperty(name = "borealis.app.searchBackend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProductSearchIndex implements ProductSearchIndex {
+
+    private static final float DESCRIPTION_WEIGHT = 3f;
+    private static final float BRAND_WEIGHT = 2f;
+    private static final float COMPOSITION_WEIGHT = 1f;
+    private static final double PREFIX_MATCH_FACTOR = 0.4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>(); // termine -> (ID prodotto -> peso)
+    private Map<Long, Map<String, Float>> documents = new HashMap<>();        // ID prodotto -> (termine -> peso), per le rimozioni
+
+    @Override
+    public void index(Collection<? extends ProductSearchDocument> documentsToIndex) {
+        lock.writeLock().lock();
+        try {
+            for (ProductSearchDocument document : documentsToIndex) {
+                removeDocument(document.getId());
+                addDocument(postings, documents, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Collection<Long> productIds) {
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::removeDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(Collection<? extends ProductSearchDocument> allDocuments) {
+        // Il nuovo indice viene costruito fuori dal lock e poi sostituito, così le ricerche non restano bloccate
+        NavigableMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<Long, Map<String, Float>> newDocuments = new HashMap<>();
+        for (ProductSearchDocument document : allDocuments) {
+            addDocument(newPostings, newDocuments, document);
+        }
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documents = newDocuments;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ProductSearchHits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        if (terms.isEmpty()) {
+            return new ProductSearchHits(List.of(), 0);
+        }
+
+        Map<Long, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            for (String term : terms) {
+                Map<Long, Double> termScores = scoreTerm(term, documentCount);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Tutti i termini devono essere presenti: si tengono solo i prodotti già trovati
+                    Map<Long, Double> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : termScores.entrySet()) {
+                        Double score = previous.get(entry.getKey());
+                        if (score != null) {
+                            scores.put(entry.getKey(), score + entry.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ranked = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .skip(offset)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+        return new ProductSearchHits(ranked, scores.size());
+    }
+
+    // Punteggio di ogni prodotto per un termine della query, considerando tutte le parole che iniziano con esso.
+    // L'idf è calcolato sul termine della query (prodotti trovati in totale), non sulle singole parole espanse.
+    private Map<Long, Double> scoreTerm(String term, int documentCount) {
+        Map<Long, Double> termScores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Float>> entry : postings.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+            double factor = entry.getKey().equals(term) ? 1.0 : PREFIX_MATCH_FACTOR;
+            for (Map.Entry<Long, Float> match : entry.getValue().entrySet()) {
+                termScores.merge(match.getKey(), match.getValue() * factor, Math::max);
+            }
+        }
+        double idf = Math.log(1.0 + (double) documentCount / Math.max(1, termScores.size()));
+        termScores.replaceAll((productId, score) -> score * idf);
+        return termScores;
+    }
+
+    private static void addDocument(NavigableMap<String, Map<Long, Float>> postings, Map<Long, Map<String, Float>> documents,
+                                    ProductSearchDocument document) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, document.getDescription(), DESCRIPTION_WEIGHT);
+        addField(weights, document.getBrand(), BRAND_WEIGHT);
+        addField(weights, document.getComposition(), COMPOSITION_WEIGHT);
+        if (weights.isEmpty()) {
+            return;
+        }
+        documents.put(document.getId(), weights);
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(document.getId(), weight));
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            weights.merge(token, fieldWeight, Float::sum);
+        }
+    }
+
+    private void removeDocument(Long productId) {
+        Map<String, Float> weights = documents.remove(productId);
+        if (weights == null) {
+            return;
+        }
+        for (String term : weights.keySet()) {
+            Map<Long, Float> matches = postings.get(term);
+            matches.remove(productId);
+            if (matches.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.borealis.backend.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Una pagina di risultati della ricerca: gli ID dei prodotti in ordine di rilevanza e il numero totale di corrispondenze.
+ */
+@Data
+@AllArgsConstructor
+public class ProductSearchHits {
+
+    private List<Long> productIds;
+    private long totalHits;
+}
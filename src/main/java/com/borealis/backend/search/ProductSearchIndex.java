@@ -0,0 +1,37 @@
+package com.borealis.backend.search;
+
+import com.borealis.backend.repository.projection.ProductSearchDocument;
+
+import java.util.Collection;
+
+/**
+ * Indice di ricerca full-text sui campi description, brand e composition dei prodotti.
+ * L'implementazione di default è in memoria (InMemoryProductSearchIndex); un backend basato su un indice
+ * testuale del database può sostituirla registrando un altro bean e impostando borealis.app.searchBackend.
+ * Un backend che si aggiorna da solo può ignorare index/remove/rebuild.
+ */
+public interface ProductSearchIndex {
+
+    /**
+     * Aggiunge o sostituisce i documenti indicati.
+     */
+    void index(Collection<? extends ProductSearchDocument> documents);
+
+    /**
+     * Rimuove i prodotti indicati (gli ID non presenti vengono ignorati).
+     */
+    void remove(Collection<Long> productIds);
+
+    /**
+     * Sostituisce l'intero contenuto dell'indice.
+     */
+    void rebuild(Collection<? extends ProductSearchDocument> documents);
+
+    /**
+     * Cerca i prodotti che contengono tutti i termini della query (ogni termine vale anche come prefisso),
+     * ordinati per rilevanza decrescente.
+     * @param offset Numero di risultati da saltare.
+     * @param limit Numero massimo di risultati da restituire.
+     */
+    ProductSearchHits search(String query, int offset, int limit);
+}
@@ -0,0 +1,96 @@
+package com.borealis.backend.search;
+
+import com.borealis.backend.event.ProductsChangedEvent;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.projection.ProductSearchDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mantiene allineato l'indice di ricerca con la tabella products.
+ * Gli aggiornamenti vengono applicati solo dopo il commit, così l'indice non contiene mai modifiche annullate da un rollback.
+ */
+@Component
+public class ProductSearchIndexUpdater {
+
+    private static final int LOAD_CHUNK_SIZE = 1000; // ID per ogni query "in (...)"
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRepository productRepository;
+
+    @Value("${borealis.app.searchRebuildOnStartup:true}") // Se false l'indice parte vuoto (es. backend che si aggiorna da solo)
+    private boolean rebuildOnStartup;
+
+    @Autowired
+    public ProductSearchIndexUpdater(ProductSearchIndex productSearchIndex, ProductRepository productRepository) {
+        this.productSearchIndex = productSearchIndex;
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Ricostruisce l'indice leggendo i campi testuali di tutti i prodotti.
+     */
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        productSearchIndex.rebuild(productRepository.findAllSearchDocuments());
+    }
+
+    /**
+     * I documenti vengono letti prima del commit, nella stessa transazione (e sulla stessa connessione) che ha modificato
+     * i prodotti, e applicati all'indice solo dopo il commit. Leggerli dopo il commit richiederebbe una seconda connessione
+     * mentre la prima è ancora assegnata alla richiesta: con tutte le connessioni del pool occupate, le richieste si
+     * bloccherebbero a vicenda fino al timeout.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        List<Long> changedIds = new ArrayList<>(event.getChangedIds());
+        List<ProductSearchDocument> documents = new ArrayList<>(changedIds.size());
+        for (int from = 0; from < changedIds.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = changedIds.subList(from, Math.min(from + LOAD_CHUNK_SIZE, changedIds.size()));
+            documents.addAll(productRepository.findSearchDocumentsByIdIn(chunk));
+        }
+        // Prodotti eliminati nel frattempo da un'altra transazione
+        Set<Long> missing = new HashSet<>(changedIds);
+        documents.forEach(document -> missing.remove(document.getId()));
+
+        Runnable apply = () -> {
+            if (!event.getDeletedIds().isEmpty()) {
+                productSearchIndex.remove(event.getDeletedIds());
+            }
+            productSearchIndex.index(documents);
+            if (!missing.isEmpty()) {
+                productSearchIndex.remove(missing);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
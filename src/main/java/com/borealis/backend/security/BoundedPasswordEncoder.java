@@ -0,0 +1,114 @@
+package com.borealis.backend.security;
+
+import com.borealis.backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder che esegue hash e verifiche (BCrypt, volutamente lenti) su un pool dedicato e limitato.
+ * Un picco di login occupa al massimo 'threads' core: le richieste in eccesso attendono in una coda limitata e,
+ * se la coda è piena o l'attesa supera maxWait, vengono rifiutate subito con ServiceBusyException (503)
+ * invece di togliere CPU e thread di Tomcat al resto dell'API.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejected = Counter.builder("borealis.password.hash.rejected")
+                .description("Operazioni sulle password rifiutate per coda piena o attesa eccessiva")
+                .register(meterRegistry);
+        Gauge.builder("borealis.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Operazioni sulle password in attesa di un thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword); // Legge solo il prefisso dell'hash, nessun calcolo
+    }
+
+    // Chiamato da Spring alla chiusura del contesto (metodo di distruzione dedotto per i @Bean)
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ServiceBusyException busy() {
+        rejected.increment();
+        return new ServiceBusyException("Troppe richieste di autenticazione in corso. Riprova tra poco.",
+                Math.max(1, maxWait.toSeconds()));
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("borealis.password.hash")
+                .description("Durata del calcolo degli hash delle password, senza l'attesa in coda")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,89 @@
+package com.borealis.backend.security;
+
+import com.borealis.backend.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita i tentativi di login con due token bucket: uno per indirizzo IP e uno per account (email).
+ * Ogni bucket contiene al massimo 'capacity' tentativi e si ricarica in modo continuo nell'arco di 'window';
+ * oltre il limite la richiesta viene rifiutata con 429 prima di calcolare l'hash della password.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final int perIpCapacity;
+    private final int perAccountCapacity;
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    // I bucket inutilizzati per più di una finestra sono di nuovo pieni: possono essere scartati
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> accountBuckets;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${borealis.app.loginRateLimitPerIp:30}") int perIpCapacity,
+                            @Value("${borealis.app.loginRateLimitPerAccount:10}") int perAccountCapacity,
+                            @Value("${borealis.app.loginRateLimitWindow:PT1M}") Duration window) {
+        this(perIpCapacity, perAccountCapacity, window, System::nanoTime);
+    }
+
+    LoginRateLimiter(int perIpCapacity, int perAccountCapacity, Duration window, LongSupplier clock) {
+        this.perIpCapacity = perIpCapacity;
+        this.perAccountCapacity = perAccountCapacity;
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+        this.ipBuckets = Caffeine.newBuilder().maximumSize(100_000).expireAfterAccess(window).build();
+        this.accountBuckets = Caffeine.newBuilder().maximumSize(100_000).expireAfterAccess(window).build();
+    }
+
+    /**
+     * Consuma un tentativo per l'IP e uno per l'account.
+     * @throws TooManyRequestsException se uno dei due limiti è esaurito.
+     */
+    public void acquire(String clientIp, String email) {
+        long now = clock.getAsLong();
+        long waitNanos = ipBuckets.get(clientIp, key -> new TokenBucket(perIpCapacity, windowNanos, now)).tryConsume(now);
+        if (waitNanos == 0 && email != null) {
+            String account = email.trim().toLowerCase(Locale.ROOT);
+            waitNanos = accountBuckets.get(account, key -> new TokenBucket(perAccountCapacity, windowNanos, now)).tryConsume(now);
+        }
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException("Troppi tentativi di accesso. Riprova più tardi.",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+    }
+
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double nanosPerToken;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int capacity, long windowNanos, long now) {
+            this.capacity = capacity;
+            this.nanosPerToken = (double) windowNanos / capacity;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        // Restituisce 0 se il tentativo è consentito, altrimenti l'attesa in nanosecondi prima del prossimo token
+        private synchronized long tryConsume(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * nanosPerToken);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.borealis.backend.security.jwt;
 
-import com.borealis.backend.security.services.UserDetailsServiceImpl;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import com.borealis.backend.security.services.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,9 +12,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,19 +26,36 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // "database": ruoli letti dal database (tramite cache) a ogni richiesta, le modifiche valgono subito.
+    // "token": principal costruito dai claim firmati, nessuna query; le modifiche ai ruoli valgono dal token successivo
+    @Value("${borealis.app.authPrincipalSource:database}")
+    private String principalSource;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        // Tempo di autenticazione (borealis.auth.filter), con outcome: none (senza token), authenticated o rejected
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "none";
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (jwt != null) {
+                outcome = "rejected";
+            }
+            Claims claims = jwt != null ? jwtUtils.parseJwtToken(jwt) : null; // Firma verificata una sola volta
+            if (claims != null) {
+                UserDetailsImpl userDetails = "token".equalsIgnoreCase(principalSource)
+                        ? jwtUtils.buildUserDetailsFromClaims(claims) : null;
+                if (userDetails == null) {
+                    userDetails = userPrincipalCache.get(claims.getSubject());
+                }
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -43,10 +64,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                outcome = "authenticated";
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
         }
+        sample.stop(meterRegistry.timer("borealis.auth.filter", "outcome", outcome));
 
         filterChain.doFilter(request, response);
     }
@@ -1,21 +1,36 @@
 package com.borealis.backend.security.jwt;
 
 import com.borealis.backend.security.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders; // Importa Decoders
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 @Component
@@ -28,6 +43,29 @@ public class JwtUtils {
     @Value("${borealis.app.jwtExpirationMs}") // Tempo di scadenza del JWT (da application.properties)
     private int jwtExpirationMs;
 
+    @Value("${borealis.app.jwtVerifiedCacheMaxSize:10000}") // Token già verificati tenuti in memoria (0 = nessuna cache)
+    private long verifiedCacheMaxSize;
+
+    // Chiave e parser sono immutabili e thread-safe: vengono costruiti una volta sola all'avvio
+    private SecretKey key;
+    private JwtParser parser;
+
+    // Claim dei token già verificati, indicizzati per hash del token, fino alla loro scadenza
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        // CORREZIONE CRUCIALE: Usa Decoders.BASE64URL.decode() per decodificare la chiave URL-safe
+        key = Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedTokens = verifiedCacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheMaxSize)
+                        .expireAfter(new TokenExpiry())
+                        .build()
+                : null;
+    }
+
     /**
      * Genera un JWT basato sull'autenticazione dell'utente.
      * @param authentication L'oggetto Authentication di Spring Security.
@@ -37,34 +75,46 @@ public class JwtUtils {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
         return Jwts.builder()
-                .setSubject((userPrincipal.getUsername())) // Usiamo l'email come subject del token
+                .subject(userPrincipal.getUsername()) // Usiamo l'email come subject del token
                 .claim("id", userPrincipal.getId()) // Aggiungi l'ID dell'utente come claim personalizzato
                 .claim("name", userPrincipal.getName()) // Aggiungi il nome dell'utente come claim personalizzato
-                .setIssuedAt(new Date()) // Data di emissione del token
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs)) // Data di scadenza del token
-                .signWith(key(), SignatureAlgorithm.HS512) // Firma il token con la chiave segreta usando HS512
+                .claim("roles", userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList()) // Ruoli, per l'autenticazione senza database
+                .issuedAt(new Date()) // Data di emissione del token
+                .expiration(new Date((new Date()).getTime() + jwtExpirationMs)) // Data di scadenza del token
+                .signWith(key, Jwts.SIG.HS512) // Firma il token con la chiave segreta usando HS512
                 .compact(); // Costruisce il JWT
     }
 
     /**
-     * Ottiene la chiave di firma dal segreto JWT.
-     * @return La chiave di firma.
+     * Verifica firma e scadenza del JWT ed estrae i claim, con un solo parsing.
+     * Un token già verificato e non ancora scaduto viene servito dalla cache senza ricalcolare la firma.
+     * @param token Il JWT.
+     * @return I claim del token, oppure null se il token non è valido.
      */
-    private Key key() {
-        // CORREZIONE CRUCIALE: Usa Decoders.BASE64URL.decode() per decodificare la chiave URL-safe
-        return Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(jwtSecret));
+    public Claims parseJwtToken(String token) {
+        if (verifiedTokens == null) {
+            return verify(token);
+        }
+        String tokenHash = hash(token);
+        Claims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            return cached;
+        }
+        Claims claims = verify(token);
+        if (claims != null && claims.getExpiration() != null) {
+            verifiedTokens.put(tokenHash, claims);
+        }
+        return claims;
     }
 
     /**
      * Estrae lo username (email) dal JWT.
      * @param token Il JWT.
-     * @return Lo username (email) estratto.
+     * @return Lo username (email) estratto, oppure null se il token non è valido.
      */
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token).getBody().getSubject();
+        Claims claims = parseJwtToken(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     /**
@@ -73,21 +123,69 @@ public class JwtUtils {
      * @return true se il token è valido, false altrimenti.
      */
     public boolean validateJwtToken(String authToken) {
+        return parseJwtToken(authToken) != null;
+    }
+
+    /**
+     * Costruisce il principal dai claim firmati del token, senza accedere al database.
+     * @param claims I claim di un token valido.
+     * @return Il principal, oppure null se il token non contiene tutti i claim necessari (es. emesso da una versione precedente).
+     */
+    public UserDetailsImpl buildUserDetailsFromClaims(Claims claims) {
+        Object id = claims.get("id");
+        Object roles = claims.get("roles");
+        if (!(id instanceof Number) || !(roles instanceof Collection<?> roleNames) || claims.getSubject() == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roleNames.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+        return new UserDetailsImpl(((Number) id).longValue(), claims.get("name", String.class), claims.getSubject(), null, authorities);
+    }
+
+    private Claims verify(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(key())
-                    .build()
-                    .parse(authToken);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    // In cache si tiene l'hash e non il token: un dump della memoria non espone token utilizzabili
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+
+    // Ogni voce scade insieme al suo token; letture e sostituzioni non ne allungano la durata
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenHash, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
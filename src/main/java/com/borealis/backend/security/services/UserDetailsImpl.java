@@ -48,6 +48,11 @@ public class UserDetailsImpl implements UserDetails {
                 authorities);
     }
 
+    // Copia senza password, per i principal tenuti in memoria oltre la richiesta (UserPrincipalCache)
+    public UserDetailsImpl withoutPassword() {
+        return new UserDetailsImpl(id, name, email, null, authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,49 @@
+package com.borealis.backend.security.services;
+
+import com.borealis.backend.config.CacheConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache dei principal usati da AuthTokenFilter, indicizzata per email (il subject del JWT).
+ * Evita a ogni richiesta autenticata la query sull'utente e quella sui ruoli; UserService invalida la voce quando
+ * l'utente viene modificato o eliminato. I principal in cache non contengono la password.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache cache;
+
+    @Autowired
+    public UserPrincipalCache(UserDetailsServiceImpl userDetailsService, CacheManager cacheManager) {
+        this.userDetailsService = userDetailsService;
+        this.cache = cacheManager.getCache(CacheConfig.USER_PRINCIPALS);
+    }
+
+    /**
+     * Il caricamento è atomico per chiave (compute di Caffeine): un evict eseguito durante il caricamento attende
+     * che finisca e poi rimuove la voce, quindi un principal letto prima di una modifica non può tornare in cache dopo l'evict.
+     * @throws UsernameNotFoundException se l'utente non esiste (l'assenza non viene messa in cache).
+     */
+    public UserDetailsImpl get(String email) {
+        try {
+            return cache.get(email, () -> ((UserDetailsImpl) userDetailsService.loadUserByUsername(email)).withoutPassword());
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Rimuove l'utente dalla cache; dentro una transazione l'effetto è rimandato al commit.
+     */
+    public void evict(String email) {
+        cache.evict(email);
+    }
+}
@@ -5,9 +5,10 @@ import com.borealis.backend.dto.request.RegisterRequestDTO;
 import com.borealis.backend.dto.request.UserCreationRequestDTO;
 import com.borealis.backend.dto.response.UserResponseDTO;
 import com.borealis.backend.Enum.Role; // <-- Modificato: Usa il tuo Enum Role
+import com.borealis.backend.mapper.UserMapper;
 import com.borealis.backend.model.User;
 import com.borealis.backend.repository.UserRepository;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -17,17 +18,18 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Service
+@Timed(value = "borealis.service", histogram = true)
 public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
 
     @Autowired
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, ModelMapper modelMapper) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserMapper userMapper) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
     }
 
     @Transactional
@@ -53,6 +55,10 @@ public class AuthService {
                     case "ROLE_SUPERUSER":
                         roles.add(Role.ROLE_SUPERUSER.name()); // <-- Modificato: Usa Role
                         break;
+                    case "OPS":
+                    case "ROLE_OPS":
+                        roles.add(Role.ROLE_OPS.name());
+                        break;
                     case "USER":
                     case "ROLE_USER":
                         roles.add(Role.ROLE_USER.name()); // <-- Modificato: Usa Role
@@ -65,7 +71,7 @@ public class AuthService {
         user.setRoles(roles);
 
         User savedUser = userRepository.save(user);
-        return modelMapper.map(savedUser, UserResponseDTO.class);
+        return userMapper.toResponse(savedUser);
     }
 
     @Transactional
@@ -84,7 +90,7 @@ public class AuthService {
         user.setRoles(roles);
 
         User savedUser = userRepository.save(user);
-        return modelMapper.map(savedUser, UserResponseDTO.class);
+        return userMapper.toResponse(savedUser);
     }
 
     public String encodePassword(String rawPassword) {
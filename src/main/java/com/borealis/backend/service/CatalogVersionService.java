@@ -0,0 +1,131 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.model.CatalogVersion;
+import com.borealis.backend.repository.CatalogVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Versioni del catalogo, usate per gli ETag delle GET su prodotti, categorie e statistiche.
+ * Sono salvate nella tabella catalog_versions e incrementate nella stessa transazione della scrittura che le cambia,
+ * quindi tutte le istanze dell'applicazione vedono le stesse versioni e una scrittura annullata non cambia l'ETag.
+ * Le GET leggono le versioni (una query per chiave primaria) prima di eseguire la query dei dati: chi le legge prima
+ * del commit di una scrittura può ricevere dati più recenti dell'ETag (e al giro successivo li riscarica),
+ * ma mai un ETag nuovo associato a dati vecchi.
+ * Le scritture fatte fuori dai service (SQL manuale, migrazioni che cambiano i dati) devono incrementare anche le righe
+ * di questa tabella ("update catalog_versions set version = version + 1"), altrimenti i client continuano a ricevere 304.
+ * Le righe vengono bloccate dopo quelle di products e product_statistics, nell'ordine: prodotti, proprietari
+ * (in ordine di ID), categorie, utenti.
+ */
+@Service
+public class CatalogVersionService {
+
+    private static final String PRODUCTS = "products";
+    private static final String ALL_OWNERS = "owners"; // Alzata quando cambiano prodotti di proprietari non noti (es. ricostruzione)
+    private static final String OWNER_PREFIX = "owner:";
+    private static final String CATEGORIES = "categories";
+    private static final String USERS = "users";
+
+    private final CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    public CatalogVersionService(CatalogVersionRepository catalogVersionRepository) {
+        this.catalogVersionRepository = catalogVersionRepository;
+    }
+
+    /**
+     * Registra la modifica dei prodotti dei proprietari indicati.
+     */
+    @Transactional
+    public void productsChanged(Collection<Long> ownerIds) {
+        increment(PRODUCTS);
+        new TreeSet<>(ownerIds).forEach(ownerId -> increment(OWNER_PREFIX + ownerId));
+    }
+
+    /**
+     * Registra una modifica che può riguardare i prodotti di qualsiasi proprietario.
+     */
+    @Transactional
+    public void allProductsChanged() {
+        increment(PRODUCTS);
+        increment(ALL_OWNERS);
+    }
+
+    @Transactional
+    public void categoriesChanged() {
+        increment(CATEGORIES);
+    }
+
+    /**
+     * Registra la modifica dei dati degli utenti riportati nei prodotti (nome, email, ruoli).
+     */
+    @Transactional
+    public void usersChanged() {
+        increment(USERS);
+    }
+
+    /**
+     * ETag delle liste e dei dettagli prodotto, che includono anche proprietario, venditore e categoria.
+     * @param ownerId Il proprietario a cui è limitata la risposta, null se riguarda tutti i prodotti.
+     */
+    @Transactional(readOnly = true)
+    public String productsETag(Long ownerId) {
+        Map<String, Long> versions = read(productKeys(ownerId, CATEGORIES, USERS));
+        return etag(productVersion(versions, ownerId), "c" + versions.get(CATEGORIES), "u" + versions.get(USERS));
+    }
+
+    /**
+     * ETag delle statistiche, che dipendono solo dai prodotti.
+     * @param ownerId Il proprietario, null per le statistiche globali.
+     */
+    @Transactional(readOnly = true)
+    public String statisticsETag(Long ownerId) {
+        return etag("s" + productVersion(read(productKeys(ownerId)), ownerId));
+    }
+
+    @Transactional(readOnly = true)
+    public String categoriesETag() {
+        return etag("c" + read(List.of(CATEGORIES)).get(CATEGORIES));
+    }
+
+    private void increment(String name) {
+        // Le righe dei proprietari nascono alla prima scrittura che li riguarda
+        if (catalogVersionRepository.increment(name) == 0) {
+            catalogVersionRepository.insertIfAbsent(name);
+            catalogVersionRepository.increment(name);
+        }
+    }
+
+    private static List<String> productKeys(Long ownerId, String... others) {
+        List<String> keys = new ArrayList<>(ownerId == null ? List.of(PRODUCTS) : List.of(ALL_OWNERS, OWNER_PREFIX + ownerId));
+        keys.addAll(List.of(others));
+        return keys;
+    }
+
+    // Una sola query per tutte le chiavi; quelle senza riga valgono 0
+    private Map<String, Long> read(List<String> names) {
+        Map<String, Long> versions = catalogVersionRepository.findAllById(names).stream()
+                .collect(Collectors.toMap(CatalogVersion::getName, CatalogVersion::getVersion));
+        names.forEach(name -> versions.putIfAbsent(name, 0L));
+        return versions;
+    }
+
+    private static String productVersion(Map<String, Long> versions, Long ownerId) {
+        if (ownerId == null) {
+            return "p" + versions.get(PRODUCTS);
+        }
+        return "o" + versions.get(ALL_OWNERS) + "." + versions.get(OWNER_PREFIX + ownerId);
+    }
+
+    private static String etag(String... versions) {
+        return "\"" + String.join("-", versions) + "\"";
+    }
+}
@@ -0,0 +1,57 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.config.CacheConfig;
+import com.borealis.backend.dto.response.CategoryResponseDTO;
+import com.borealis.backend.mapper.CategoryMapper;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Letture delle categorie servite dalla cache (vedi CacheConfig).
+ * Separato da CategoryService perché lo usa anche ProductService, da cui CategoryService dipende.
+ * I DTO restituiti sono condivisi tra le richieste e non vanno modificati.
+ */
+@Service
+public class CategoryLookupService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+
+    @Autowired
+    public CategoryLookupService(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+    }
+
+    /**
+     * @throws IllegalArgumentException se la categoria non esiste (l'assenza non viene messa in cache).
+     */
+    @Cacheable(CacheConfig.CATEGORIES)
+    public CategoryResponseDTO getCategory(Long id) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Categoria con ID " + id + " non trovata."));
+        return categoryMapper.toResponse(category);
+    }
+
+    @Cacheable(CacheConfig.CATEGORY_LIST)
+    public List<CategoryResponseDTO> getAllCategories() {
+        return List.copyOf(categoryMapper.toResponseList(categoryRepository.findAll()));
+    }
+
+    /**
+     * Svuota le cache delle categorie; dentro una transazione l'effetto è rimandato al commit.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
+    })
+    public void evictAll() {
+    }
+}
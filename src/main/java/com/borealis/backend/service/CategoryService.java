@@ -2,26 +2,35 @@ package com.borealis.backend.service;
 
 import com.borealis.backend.dto.request.CategoryRequestDTO;
 import com.borealis.backend.dto.response.CategoryResponseDTO;
+import com.borealis.backend.mapper.CategoryMapper;
 import com.borealis.backend.model.Category;
 import com.borealis.backend.repository.CategoryRepository;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper; // Importa ModelMapper
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "borealis.service", histogram = true)
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
-    private final ModelMapper modelMapper; // Inietta ModelMapper
+    private final CategoryMapper categoryMapper;
+    private final ProductService productService;
+    private final CategoryLookupService categoryLookupService;
+    private final CatalogVersionService catalogVersionService;
 
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository, ModelMapper modelMapper) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                           ProductService productService, CategoryLookupService categoryLookupService,
+                           CatalogVersionService catalogVersionService) {
         this.categoryRepository = categoryRepository;
-        this.modelMapper = modelMapper;
+        this.categoryMapper = categoryMapper;
+        this.productService = productService;
+        this.categoryLookupService = categoryLookupService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     /**
@@ -35,31 +44,29 @@ public class CategoryService {
         if (categoryRepository.findByName(categoryDto.getName()).isPresent()) {
             throw new IllegalArgumentException("Errore: Il nome della categoria '" + categoryDto.getName() + "' è già in uso.");
         }
-        Category category = modelMapper.map(categoryDto, Category.class);
+        Category category = categoryMapper.toEntity(categoryDto);
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryResponseDTO.class);
+        categoryLookupService.evictAll();
+        catalogVersionService.categoriesChanged();
+        return categoryMapper.toResponse(savedCategory);
     }
 
     /**
-     * Recupera una categoria per ID.
+     * Recupera una categoria per ID, dalla cache se presente.
      * @param id ID della categoria.
      * @return CategoryResponseDTO se trovata.
      * @throws IllegalArgumentException se la categoria non è trovata.
      */
     public CategoryResponseDTO getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Categoria con ID " + id + " non trovata."));
-        return modelMapper.map(category, CategoryResponseDTO.class);
+        return categoryLookupService.getCategory(id);
     }
 
     /**
-     * Recupera tutte le categorie.
-     * @return Lista di CategoryResponseDTO.
+     * Recupera tutte le categorie, dalla cache se presenti.
+     * @return Lista di CategoryResponseDTO (non modificabile).
      */
     public List<CategoryResponseDTO> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(category -> modelMapper.map(category, CategoryResponseDTO.class))
-                .collect(Collectors.toList());
+        return categoryLookupService.getAllCategories();
     }
 
     /**
@@ -83,7 +90,9 @@ public class CategoryService {
 
         existingCategory.setName(categoryDto.getName()); // Aggiorna il nome
         Category updatedCategory = categoryRepository.save(existingCategory);
-        return modelMapper.map(updatedCategory, CategoryResponseDTO.class);
+        categoryLookupService.evictAll();
+        catalogVersionService.categoriesChanged();
+        return categoryMapper.toResponse(updatedCategory);
     }
 
     /**
@@ -98,6 +107,9 @@ public class CategoryService {
         }
         // TODO: Considera la gestione dei prodotti associati a questa categoria prima dell'eliminazione.
         // Potrebbe essere necessario disassociare i prodotti o eliminarli a cascata.
+        productService.categoryDeleting(id); // Per ora i prodotti vengono eliminati a cascata
         categoryRepository.deleteById(id);
+        categoryLookupService.evictAll();
+        catalogVersionService.categoriesChanged();
     }
 }
@@ -0,0 +1,221 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.dto.request.ProductBatchRequestDTO;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.response.ProductBatchItemResultDTO;
+import com.borealis.backend.dto.response.ProductBatchResponseDTO;
+import com.borealis.backend.event.ProductsChangedEvent;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Inserimento di molti prodotti con una sola richiesta (carico di un conto vendita).
+ * Proprietari e categorie vengono letti una volta sola per tutto il blocco; prodotti e primo prezzo dello storico
+ * vengono inseriti con batch JDBC, che Hibernate non può usare con ID di tipo IDENTITY.
+ */
+@Service
+public class ProductBatchService {
+
+    private static final String INSERT_PRODUCT = "insert into products"
+            + " (owner_id, category_id, description, size, composition, brand, gender, current_price, insertion_date, sold, version)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, false, 0)";
+    private static final String INSERT_PRICE = "insert into product_prices (product_id, price, modification_date) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductStatisticsService productStatisticsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionService catalogVersionService;
+
+    @Value("${borealis.app.productBatchMaxItems:1000}") // Numero massimo di prodotti per richiesta
+    private int maxItems;
+
+    @Value("${borealis.app.jdbcBatchSize:200}") // Righe inviate al database per ogni batch JDBC
+    private int jdbcBatchSize;
+
+    @Autowired
+    public ProductBatchService(JdbcTemplate jdbcTemplate, Validator validator, UserRepository userRepository,
+                               CategoryRepository categoryRepository, ProductStatisticsService productStatisticsService,
+                               ApplicationEventPublisher eventPublisher, CatalogVersionService catalogVersionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.productStatisticsService = productStatisticsService;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    /**
+     * Crea i prodotti validi della richiesta e riporta l'esito di ciascun elemento.
+     * Gli elementi non validi (vincoli del DTO, proprietario o categoria inesistenti) vengono scartati senza
+     * bloccare gli altri; un errore del database invece annulla l'intero blocco.
+     * @return Un risultato per ogni elemento, nello stesso ordine della richiesta.
+     * @throws IllegalArgumentException se la richiesta supera il numero massimo di elementi.
+     */
+    @Transactional
+    public ProductBatchResponseDTO createProducts(ProductBatchRequestDTO request) {
+        List<ProductRequestDTO> items = request.getItems();
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Non è possibile inserire più di " + maxItems + " prodotti per richiesta.");
+        }
+
+        List<ProductBatchItemResultDTO> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            results.add(new ProductBatchItemResultDTO(i, false, null, validate(items.get(i))));
+        }
+
+        // Una query per i proprietari e una per le categorie, per tutti gli elementi validi
+        Map<Long, User> owners = userRepository.findAllById(collectIds(items, results, ProductRequestDTO::getOwnerId)).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Category> categories = categoryRepository.findAllById(collectIds(items, results, ProductRequestDTO::getCategoryId)).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        List<Integer> accepted = new ArrayList<>();
+        for (ProductBatchItemResultDTO result : results) {
+            if (result.getErrors() != null) {
+                continue;
+            }
+            ProductRequestDTO item = items.get(result.getIndex());
+            List<String> errors = new ArrayList<>();
+            if (!owners.containsKey(item.getOwnerId())) {
+                errors.add("Proprietario (User) con ID " + item.getOwnerId() + " non trovato.");
+            }
+            if (!categories.containsKey(item.getCategoryId())) {
+                errors.add("Categoria con ID " + item.getCategoryId() + " non trovata.");
+            }
+            if (errors.isEmpty()) {
+                accepted.add(result.getIndex());
+            } else {
+                result.setErrors(errors);
+            }
+        }
+
+        List<Long> productIds = new ArrayList<>(accepted.size());
+        for (int from = 0; from < accepted.size(); from += jdbcBatchSize) {
+            List<ProductRequestDTO> chunk = accepted.subList(from, Math.min(from + jdbcBatchSize, accepted.size())).stream()
+                    .map(items::get)
+                    .toList();
+            productIds.addAll(insertChunk(chunk));
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            ProductBatchItemResultDTO result = results.get(accepted.get(i));
+            result.setSuccess(true);
+            result.setProductId(productIds.get(i));
+        }
+
+        productStatisticsService.productsAdded(productIds);
+        catalogVersionService.productsChanged(accepted.stream().map(index -> items.get(index).getOwnerId()).collect(Collectors.toSet()));
+        eventPublisher.publishEvent(new ProductsChangedEvent(productIds, List.of()));
+        return new ProductBatchResponseDTO(accepted.size(), items.size() - accepted.size(), results);
+    }
+
+    private List<String> validate(ProductRequestDTO item) {
+        if (item == null) {
+            return List.of("Elemento vuoto.");
+        }
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private Set<Long> collectIds(List<ProductRequestDTO> items, List<ProductBatchItemResultDTO> results,
+                                 Function<ProductRequestDTO, Long> idGetter) {
+        return results.stream()
+                .filter(result -> result.getErrors() == null)
+                .map(result -> idGetter.apply(items.get(result.getIndex())))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    // Inserisce un blocco di prodotti e il loro primo prezzo: due round trip in tutto, gli ID arrivano dalle chiavi generate
+    private List<Long> insertChunk(List<ProductRequestDTO> chunk) {
+        LocalDate insertionDate = LocalDate.now();
+        LocalDateTime priceDate = LocalDateTime.now();
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_PRODUCT, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductRequestDTO item = chunk.get(i);
+                        ps.setLong(1, item.getOwnerId());
+                        ps.setLong(2, item.getCategoryId());
+                        ps.setString(3, item.getDescription());
+                        setNullableString(ps, 4, item.getSize());
+                        setNullableString(ps, 5, item.getComposition());
+                        setNullableString(ps, 6, item.getBrand());
+                        ps.setString(7, item.getGender().name());
+                        ps.setBigDecimal(8, item.getCurrentPrice());
+                        ps.setDate(9, Date.valueOf(insertionDate));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                }, keyHolder);
+
+        List<Long> ids = keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+
+        jdbcTemplate.batchUpdate(INSERT_PRICE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids.get(i));
+                ps.setBigDecimal(2, chunk.get(i).getCurrentPrice());
+                ps.setTimestamp(3, Timestamp.valueOf(priceDate));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        });
+        return ids;
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value != null) {
+            ps.setString(index, value);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+}
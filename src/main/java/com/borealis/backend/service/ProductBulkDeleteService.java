@@ -0,0 +1,163 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.dto.request.ProductBulkDeleteRequestDTO;
+import com.borealis.backend.dto.response.ProductBulkDeleteResponseDTO;
+import com.borealis.backend.event.ProductsChangedEvent;
+import com.borealis.backend.model.Product;
+import com.borealis.backend.repository.ProductPriceRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.ProductSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Eliminazione in blocco dei prodotti e del loro storico prezzi con statement set-based ("delete ... where id in").
+ * Il lavoro è diviso in blocchi di dimensione configurabile, ognuno nella propria transazione: un'eliminazione molto
+ * grande non tiene lock e undo log per tutta la sua durata e, se si interrompe, i blocchi già completati restano validi.
+ */
+@Service
+public class ProductBulkDeleteService {
+
+    private final ProductRepository productRepository;
+    private final ProductPriceRepository productPriceRepository;
+    private final ProductStatisticsService productStatisticsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionService catalogVersionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${borealis.app.bulkDeleteChunkSize:500}") // Prodotti eliminati per ogni transazione
+    private int chunkSize;
+
+    @Autowired
+    public ProductBulkDeleteService(ProductRepository productRepository, ProductPriceRepository productPriceRepository,
+                                    ProductStatisticsService productStatisticsService, ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager, CatalogVersionService catalogVersionService) {
+        this.productRepository = productRepository;
+        this.productPriceRepository = productPriceRepository;
+        this.productStatisticsService = productStatisticsService;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersionService = catalogVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Elimina i prodotti che soddisfano tutti i criteri della richiesta, un blocco per transazione.
+     * Con una lista di ID i blocchi seguono la lista (gli ID inesistenti o esclusi dal filtro vengono ignorati);
+     * con il solo filtro ogni blocco prende i successivi prodotti corrispondenti in ordine di ID.
+     * @return Il numero di prodotti e di prezzi eliminati e il numero di transazioni eseguite.
+     * @throws IllegalArgumentException se la richiesta non contiene alcun criterio o lo stato non è valido.
+     */
+    public ProductBulkDeleteResponseDTO deleteProducts(ProductBulkDeleteRequestDTO request) {
+        Specification<Product> filter = toSpecification(request);
+        List<Long> productIds = request.getProductIds() == null ? List.of()
+                : List.copyOf(new LinkedHashSet<>(request.getProductIds()));
+
+        ProductBulkDeleteResponseDTO response = new ProductBulkDeleteResponseDTO(0, 0, 0);
+        if (!productIds.isEmpty()) {
+            for (int from = 0; from < productIds.size(); from += chunkSize) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + chunkSize, productIds.size()));
+                transactionTemplate.execute(status -> deleteChunk(findIds(filter, chunk, null), response));
+            }
+        } else {
+            // Paginazione per ID: ogni blocco riparte dall'ultimo ID eliminato, senza offset
+            Long lastId = null;
+            List<Long> deleted;
+            do {
+                Long afterId = lastId;
+                deleted = transactionTemplate.execute(status -> deleteChunk(findIds(filter, null, afterId), response));
+                lastId = deleted.isEmpty() ? lastId : deleted.get(deleted.size() - 1);
+            } while (deleted.size() == chunkSize);
+        }
+        return response;
+    }
+
+    /**
+     * Elimina i prodotti indicati nella transazione corrente, con un numero di statement indipendente dal numero di prodotti:
+     * blocca le righe (select ... for update) e ne calcola il contributo alle statistiche, elimina storico prezzi e prodotti
+     * e infine aggiorna le statistiche. Le righe dei prodotti sono bloccate prima di quelle delle statistiche,
+     * nello stesso ordine delle altre scritture (vedi ProductStatisticsService).
+     * @return Il numero di prezzi eliminati.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int deleteByIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        ProductStatisticsService.Snapshot removed = productStatisticsService.lockSnapshot(productIds);
+        int deletedPrices = productPriceRepository.deleteByProductIds(productIds);
+        productRepository.deleteByIds(productIds);
+        productStatisticsService.productRemoved(removed);
+        catalogVersionService.productsChanged(removed.ownerIds());
+        eventPublisher.publishEvent(ProductsChangedEvent.deleted(productIds));
+        return deletedPrices;
+    }
+
+    private List<Long> deleteChunk(List<Long> productIds, ProductBulkDeleteResponseDTO response) {
+        if (productIds.isEmpty()) {
+            return productIds;
+        }
+        int deletedPrices = deleteByIds(productIds);
+        response.setDeletedProducts(response.getDeletedProducts() + productIds.size());
+        response.setDeletedPrices(response.getDeletedPrices() + deletedPrices);
+        response.setChunks(response.getChunks() + 1);
+        return productIds;
+    }
+
+    // ID ordinati dei prodotti che soddisfano il filtro, limitati alla lista indicata o successivi a afterId.
+    // Le righe vengono bloccate già qui: il filtro è valutato sulle righe bloccate, quindi un prodotto venduto
+    // o modificato da una transazione concorrente non viene eliminato se non lo soddisfa più
+    private List<Long> findIds(Specification<Product> filter, Collection<Long> ids, Long afterId) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        Specification<Product> specification = filter;
+        if (ids != null) {
+            specification = specification.and((r, q, cb) -> r.get("id").in(ids));
+        }
+        if (afterId != null) {
+            specification = specification.and((r, q, cb) -> cb.greaterThan(r.get("id"), afterId));
+        }
+        query.select(root.get("id"))
+                .where(specification.toPredicate(root, query, criteriaBuilder))
+                .orderBy(criteriaBuilder.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(chunkSize)
+                .getResultList();
+    }
+
+    private static Specification<Product> toSpecification(ProductBulkDeleteRequestDTO request) {
+        boolean hasIds = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        boolean hasFilter = request.getOwnerId() != null || request.getCategoryId() != null || request.getStatus() != null
+                || request.getSoldBefore() != null || request.getInsertedBefore() != null;
+        if (!hasIds && !hasFilter) {
+            throw new IllegalArgumentException("Specificare gli ID dei prodotti o almeno un filtro.");
+        }
+        Boolean sold = ProductSpecifications.parseStatus(request.getStatus());
+        if (request.getStatus() != null && sold == null) {
+            throw new IllegalArgumentException("Stato non valido: " + request.getStatus() + ". Valori ammessi: SOLD, AVAILABLE.");
+        }
+        return ProductSpecifications.filter(null, request.getOwnerId(), request.getCategoryId(), sold)
+                .and(ProductSpecifications.before(request.getSoldBefore(), request.getInsertedBefore()));
+    }
+}
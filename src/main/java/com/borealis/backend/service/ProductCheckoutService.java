@@ -0,0 +1,143 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.dto.request.CheckoutRequestDTO;
+import com.borealis.backend.dto.response.CheckoutItemResponseDTO;
+import com.borealis.backend.dto.response.CheckoutReceiptResponseDTO;
+import com.borealis.backend.event.ProductsChangedEvent;
+import com.borealis.backend.exception.ConflictException;
+import com.borealis.backend.model.Product;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Vendita di più prodotti in un'unica operazione di cassa.
+ * I prodotti vengono letti e validati con una sola query e marcati come venduti con un batch di update condizionali
+ * ("... where sold = false and version = ?"): se anche uno solo è stato venduto o modificato nel frattempo l'intera
+ * vendita viene annullata. La versione è quella della lettura da cui vengono scontrino, commissioni e statistiche,
+ * quindi un cambio di prezzo o di proprietario confermato dopo la lettura non viene venduto con i valori superati.
+ */
+@Service
+public class ProductCheckoutService {
+
+    private static final String MARK_SOLD = "update products set sold = true, sale_date = ?, seller_id = ?, seller_commission_amount = ?,"
+            + " version = version + 1 where id = ? and sold = false and version = ?";
+
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ProductStatisticsService productStatisticsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionService catalogVersionService;
+
+    @Autowired
+    public ProductCheckoutService(ProductRepository productRepository, UserRepository userRepository,
+                                  ProductStatisticsService productStatisticsService, JdbcTemplate jdbcTemplate,
+                                  ApplicationEventPublisher eventPublisher, CatalogVersionService catalogVersionService) {
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.productStatisticsService = productStatisticsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    /**
+     * Marca come venduti tutti i prodotti indicati, oppure nessuno.
+     * @return Lo scontrino con le commissioni di ogni prodotto e i totali.
+     * @throws IllegalArgumentException se il venditore o un prodotto non esistono, se un ID è ripetuto o se un prodotto non ha prezzo.
+     * @throws ConflictException se un prodotto è già stato venduto o è stato modificato dopo la lettura (anche da una vendita concorrente).
+     */
+    @Transactional
+    public CheckoutReceiptResponseDTO checkout(CheckoutRequestDTO request) {
+        Set<Long> productIds = new LinkedHashSet<>(request.getProductIds());
+        if (productIds.size() != request.getProductIds().size()) {
+            throw new IllegalArgumentException("La lista dei prodotti contiene ID ripetuti.");
+        }
+        User seller = userRepository.findById(request.getSellerId())
+                .orElseThrow(() -> new IllegalArgumentException("Venditore (User) con ID " + request.getSellerId() + " non trovato."));
+
+        Map<Long, Product> productsById = productRepository.findByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = new ArrayList<>(productIds.size());
+        List<String> alreadySold = new ArrayList<>();
+        for (Long productId : productIds) {
+            Product product = productsById.get(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Prodotto con ID " + productId + " non trovato.");
+            }
+            if (product.getCurrentPrice() == null) {
+                throw new IllegalArgumentException("Il prodotto con ID " + productId + " non ha un prezzo.");
+            }
+            if (product.isSold()) {
+                alreadySold.add(String.valueOf(productId));
+            }
+            products.add(product);
+        }
+        if (!alreadySold.isEmpty()) {
+            throw new ConflictException("Alcuni prodotti sono già stati venduti.", alreadySold);
+        }
+
+        LocalDate saleDate = LocalDate.now();
+        BigDecimal commissionRate = BigDecimal.valueOf(ProductService.SELLER_PERCENTAGE);
+        List<CheckoutItemResponseDTO> items = products.stream()
+                .map(product -> new CheckoutItemResponseDTO(product.getId(), product.getDescription(), product.getOwner().getId(),
+                        product.getCurrentPrice(), product.getCurrentPrice().multiply(commissionRate)))
+                .toList();
+
+        int[] updated = jdbcTemplate.batchUpdate(MARK_SOLD, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CheckoutItemResponseDTO item = items.get(i);
+                ps.setDate(1, Date.valueOf(saleDate));
+                ps.setLong(2, seller.getId());
+                ps.setDouble(3, item.getSellerCommissionAmount().doubleValue());
+                ps.setLong(4, item.getProductId());
+                ps.setLong(5, products.get(i).getVersion());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+        // Un update che non ha modificato righe significa che il prodotto è stato venduto o modificato da un'altra
+        // transazione dopo la lettura: l'eccezione annulla anche gli update già eseguiti
+        List<String> lostRace = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                lostRace.add(String.valueOf(items.get(i).getProductId()));
+            }
+        }
+        if (!lostRace.isEmpty()) {
+            throw new ConflictException("Alcuni prodotti sono stati venduti o modificati da un'altra operazione.", lostRace);
+        }
+
+        productStatisticsService.productsSold(products);
+        catalogVersionService.productsChanged(products.stream().map(product -> product.getOwner().getId()).collect(Collectors.toSet()));
+        eventPublisher.publishEvent(new ProductsChangedEvent(productIds, List.of()));
+
+        BigDecimal totalAmount = items.stream().map(CheckoutItemResponseDTO::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalCommission = items.stream().map(CheckoutItemResponseDTO::getSellerCommissionAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new CheckoutReceiptResponseDTO(seller.getId(), seller.getName(), saleDate, items, items.size(), totalAmount, totalCommission);
+    }
+}
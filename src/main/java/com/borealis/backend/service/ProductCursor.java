@@ -0,0 +1,84 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.ProductSort;
+import com.borealis.backend.dto.response.NormalizedProductResponseDTO;
+import com.borealis.backend.dto.response.ProductResponseDTO;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Posizione nella paginazione a cursore dei prodotti: ordinamento, valore di ordinamento e ID dell'ultimo elemento restituito.
+ * Verso il client viaggia come stringa opaca (Base64 URL-safe), che va solo restituita così com'è per la pagina successiva.
+ */
+public final class ProductCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final ProductSort sort;
+    private final Comparable<?> sortValue;
+    private final Long lastId;
+
+    private ProductCursor(ProductSort sort, Comparable<?> sortValue, Long lastId) {
+        this.sort = sort;
+        this.sortValue = sortValue;
+        this.lastId = lastId;
+    }
+
+    public ProductSort getSort() {
+        return sort;
+    }
+
+    public Comparable<?> getSortValue() {
+        return sortValue;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Crea il cursore che punta subito dopo il prodotto indicato.
+     */
+    public static ProductCursor after(ProductSort sort, ProductResponseDTO last) {
+        return after(sort, last.getId(), last.getCurrentPrice(), last.getInsertionDate());
+    }
+
+    public static ProductCursor after(ProductSort sort, NormalizedProductResponseDTO last) {
+        return after(sort, last.getId(), last.getCurrentPrice(), last.getInsertionDate());
+    }
+
+    public static ProductCursor after(ProductSort sort, Long id, BigDecimal currentPrice, LocalDate insertionDate) {
+        return new ProductCursor(sort, sort.isByPrice() ? currentPrice : insertionDate, id);
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + sortValue + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursore ricevuto dal client.
+     * @param token Il cursore opaco.
+     * @param expectedSort L'ordinamento della richiesta corrente: un cursore creato con un altro ordinamento non è valido.
+     * @throws IllegalArgumentException se il cursore è malformato o non corrisponde all'ordinamento.
+     */
+    public static ProductCursor decode(String token, ProductSort expectedSort) {
+        ProductCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            ProductSort sort = ProductSort.valueOf(parts[0]);
+            Comparable<?> value = sort.isByPrice() ? new BigDecimal(parts[1]) : LocalDate.parse(parts[1]);
+            cursor = new ProductCursor(sort, value, Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursore non valido.");
+        }
+        if (cursor.sort != expectedSort) {
+            throw new IllegalArgumentException("Il cursore è stato generato con un ordinamento diverso (" + cursor.sort + ").");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,185 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.ExportFormat;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.Product;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.ProductSpecifications;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Esportazione in streaming del catalogo prodotti.
+ * Le righe vengono lette con un cursore forward-only (fetch size fisso) come semplici tuple, senza
+ * caricare entità nel persistence context, e scritte subito sullo stream di output:
+ * la memoria usata resta costante qualunque sia il numero di prodotti esportati.
+ */
+@Service
+public class ProductExportService {
+
+    // Colonne esportate, nell'ordine in cui compaiono nel CSV e negli oggetti NDJSON
+    private static final String[] COLUMNS = {
+            "id", "description", "brand", "size", "composition", "gender", "currentPrice",
+            "insertionDate", "saleDate", "sold", "sellerCommissionAmount",
+            "ownerId", "ownerName", "sellerId", "sellerName", "categoryId", "categoryName"
+    };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${borealis.app.exportFetchSize:500}") // Righe lette dal database per ogni round trip del cursore
+    private int fetchSize;
+
+    @Autowired
+    public ProductExportService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Scrive sullo stream tutti i prodotti che rispettano i filtri (gli stessi di getFilteredProducts), ordinati per ID.
+     * Deve essere chiamato dal thread che scrive la risposta, perché la transazione resta aperta per tutta la durata dello streaming.
+     * @param out Lo stream di output, che non viene chiuso.
+     * @return Il numero di prodotti esportati.
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(String description, Long ownerId, Long categoryId, String status,
+                               ExportFormat format, OutputStream out) throws IOException {
+        Specification<Product> spec = ProductSpecifications.filter(description, ownerId, categoryId, ProductSpecifications.parseStatus(status));
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        Join<Product, User> owner = root.join("owner");
+        Join<Product, User> seller = root.join("seller", JoinType.LEFT);
+        Join<Product, Category> category = root.join("category");
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("description").alias("description"),
+                root.get("brand").alias("brand"),
+                root.get("size").alias("size"),
+                root.get("composition").alias("composition"),
+                root.get("gender").alias("gender"),
+                root.get("currentPrice").alias("currentPrice"),
+                root.get("insertionDate").alias("insertionDate"),
+                root.get("saleDate").alias("saleDate"),
+                root.get("sold").alias("sold"),
+                root.get("sellerCommissionAmount").alias("sellerCommissionAmount"),
+                owner.get("id").alias("ownerId"),
+                owner.get("name").alias("ownerName"),
+                seller.get("id").alias("sellerId"),
+                seller.get("name").alias("sellerName"),
+                category.get("id").alias("categoryId"),
+                category.get("name").alias("categoryName"));
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+
+        Query<Tuple> hibernateQuery = entityManager.createQuery(query).unwrap(Query.class);
+        hibernateQuery.setFetchSize(fetchSize);
+        hibernateQuery.setReadOnly(true);
+
+        try (ScrollableResults<Tuple> rows = hibernateQuery.scroll(ScrollMode.FORWARD_ONLY)) {
+            return format == ExportFormat.CSV ? writeCsv(rows, out) : writeNdjson(rows, out);
+        }
+    }
+
+    private long writeNdjson(ScrollableResults<Tuple> rows, OutputStream out) throws IOException {
+        long count = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        while (rows.next()) {
+            Tuple row = rows.get();
+            generator.writeStartObject();
+            for (String column : COLUMNS) {
+                generator.writeFieldName(column);
+                writeJsonValue(generator, row.get(column));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            if (++count % fetchSize == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+        return count;
+    }
+
+    private void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long longValue) {
+            generator.writeNumber(longValue);
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof Double doubleValue) {
+            generator.writeNumber(doubleValue);
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else {
+            // Stringhe, enum e date (in formato ISO-8601)
+            generator.writeString(value.toString());
+        }
+    }
+
+    private long writeCsv(ScrollableResults<Tuple> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        while (rows.next()) {
+            Tuple row = rows.get();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(row.get(COLUMNS[i])));
+            }
+            writer.write("\r\n");
+            if (++count % fetchSize == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
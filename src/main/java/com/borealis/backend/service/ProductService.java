@@ -1,21 +1,46 @@
 package com.borealis.backend.service;
 
+import com.borealis.backend.Enum.ProductField;
+import com.borealis.backend.Enum.ProductSort;
 import com.borealis.backend.dto.request.ProductRequestDTO;
 import com.borealis.backend.dto.request.ProductUpdateRequestDTO;
+import com.borealis.backend.dto.response.CategoryResponseDTO;
+import com.borealis.backend.dto.response.CategoryStatisticsResponseDTO;
+import com.borealis.backend.dto.response.CursorPageResponseDTO;
+import com.borealis.backend.dto.response.MonthlySalesResponseDTO;
+import com.borealis.backend.dto.response.NormalizedProductListResponseDTO;
+import com.borealis.backend.dto.response.NormalizedProductResponseDTO;
 import com.borealis.backend.dto.response.ProductPriceResponseDTO;
 import com.borealis.backend.dto.response.ProductResponseDTO;
+import com.borealis.backend.dto.response.ProductSearchResponseDTO;
 import com.borealis.backend.dto.response.ProductStatisticsResponseDTO;
+import com.borealis.backend.dto.response.UserResponseDTO;
+import com.borealis.backend.event.ProductsChangedEvent;
+import com.borealis.backend.exception.ConflictException;
+import com.borealis.backend.mapper.ProductMapper;
+import com.borealis.backend.mapper.ProductPriceMapper;
+import com.borealis.backend.mapper.UserMapper;
 import com.borealis.backend.model.Category;
 import com.borealis.backend.model.Product;
 import com.borealis.backend.model.ProductPrice;
 import com.borealis.backend.model.User;
-import com.borealis.backend.repository.CategoryRepository;
 import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.ProductSpecifications;
+import com.borealis.backend.repository.projection.CategoryStatisticsView;
+import com.borealis.backend.repository.projection.MonthlySalesView;
 import com.borealis.backend.repository.UserRepository;
-import jakarta.persistence.criteria.Predicate;
+import com.borealis.backend.search.ProductSearchHits;
+import com.borealis.backend.search.ProductSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -23,26 +48,62 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "borealis.service", histogram = true) // Un timer per ogni metodo pubblico, con tag class e method (vedi MetricsConfig)
 public class ProductService {
 
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
+    private final ProductPriceMapper productPriceMapper;
+    private final UserMapper userMapper;
+    private final ProductStatisticsService productStatisticsService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductBulkDeleteService productBulkDeleteService;
+    private final CategoryLookupService categoryLookupService;
+    private final CatalogVersionService catalogVersionService;
 
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    private static final double SELLER_PERCENTAGE = 0.10; // 10%
+
+    static final double SELLER_PERCENTAGE = 0.10; // 10%, usata anche da ProductCheckoutService
+
+    @Value("${borealis.app.productPageSize:50}") // Dimensione di pagina di default per la paginazione a cursore
+    private int defaultPageSize;
+
+    @Value("${borealis.app.productMaxPageSize:500}") // Dimensione di pagina massima accettata
+    private int maxPageSize;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, UserRepository userRepository, CategoryRepository categoryRepository, ModelMapper modelMapper) {
+    public ProductService(ProductRepository productRepository, UserRepository userRepository,
+                          ProductMapper productMapper, ProductPriceMapper productPriceMapper, UserMapper userMapper,
+                          ProductStatisticsService productStatisticsService, ProductSearchIndex productSearchIndex,
+                          ApplicationEventPublisher eventPublisher, ProductBulkDeleteService productBulkDeleteService,
+                          CategoryLookupService categoryLookupService, CatalogVersionService catalogVersionService) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
-        this.categoryRepository = categoryRepository;
-        this.modelMapper = modelMapper;
+        this.productMapper = productMapper;
+        this.productPriceMapper = productPriceMapper;
+        this.userMapper = userMapper;
+        this.productStatisticsService = productStatisticsService;
+        this.productSearchIndex = productSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.productBulkDeleteService = productBulkDeleteService;
+        this.categoryLookupService = categoryLookupService;
+        this.catalogVersionService = catalogVersionService;
     }
 
 
@@ -50,10 +111,9 @@ public class ProductService {
     public ProductResponseDTO createProduct(ProductRequestDTO productDto) {
         User owner = userRepository.findById(productDto.getOwnerId())
                 .orElseThrow(() -> new IllegalArgumentException("Proprietario (User) con ID " + productDto.getOwnerId() + " non trovato."));
-        Category category = categoryRepository.findById(productDto.getCategoryId())
-                .orElseThrow(() -> new IllegalArgumentException("Categoria con ID " + productDto.getCategoryId() + " non trovata."));
+        Category category = categoryReference(productDto.getCategoryId());
 
-        Product product = modelMapper.map(productDto, Product.class); // ModelMapper mappa già 'brand' qui
+        Product product = productMapper.toEntity(productDto); // Il mapper copia già 'brand' qui
         product.setOwner(owner);
         product.setCategory(category);
         // RIMUOVI LA SEGUENTE LINEA: product.setBrand(product.getBrand());
@@ -67,20 +127,26 @@ public class ProductService {
             product.addPrice(product.getCurrentPrice());
         }
 
-        Product savedProduct = productRepository.save(product);
-        return modelMapper.map(savedProduct, ProductResponseDTO.class);
+        Product savedProduct;
+        try {
+            savedProduct = productRepository.save(product);
+        } catch (DataIntegrityViolationException e) {
+            throw categoryNotFound(productDto.getCategoryId(), e);
+        }
+        productStatisticsService.productAdded(savedProduct);
+        catalogVersionService.productsChanged(List.of(owner.getId()));
+        eventPublisher.publishEvent(ProductsChangedEvent.changed(savedProduct.getId()));
+        return toResponse(savedProduct);
     }
 
     public ProductResponseDTO getProductById(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Prodotto con ID " + id + " non trovato."));
-        return modelMapper.map(product, ProductResponseDTO.class);
+        return productMapper.toResponse(product);
     }
 
     public List<ProductResponseDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(product -> modelMapper.map(product, ProductResponseDTO.class))
-                .collect(Collectors.toList());
+        return productMapper.toResponseList(productRepository.findAll());
     }
 
     /**
@@ -88,65 +154,287 @@ public class ProductService {
      * Corretto l'errore "not effectively final" riorganizzando la Specification.
      */
     public List<ProductResponseDTO> getFilteredProducts(String description, Long ownerId, Long categoryId, String status) {
-        Boolean isSold;
-        if (status != null) {
-            if ("SOLD".equalsIgnoreCase(status)) {
-                isSold = true;
-            } else if ("AVAILABLE".equalsIgnoreCase(status)) {
-                isSold = false;
-            } else {
-                isSold = null;
+        Specification<Product> spec = ProductSpecifications.filter(description, ownerId, categoryId, ProductSpecifications.parseStatus(status));
+
+        return productMapper.toResponseList(productRepository.findAll(spec));
+    }
+
+    /**
+     * Recupera una pagina di prodotti filtrati con paginazione a cursore (keyset).
+     * Invece di OFFSET si riparte dalla posizione dell'ultimo elemento della pagina precedente,
+     * quindi le pagine profonde costano quanto la prima.
+     * @param cursor Il cursore restituito dalla pagina precedente, null per la prima pagina.
+     * @param size La dimensione di pagina richiesta, null per quella di default. Viene limitata a maxPageSize.
+     * @param sort L'ordinamento (vedi ProductSort), null per data di inserimento decrescente.
+     * @return La pagina con il cursore per quella successiva.
+     * @throws IllegalArgumentException se il cursore o l'ordinamento non sono validi.
+     */
+    public CursorPageResponseDTO<ProductResponseDTO> getProductsPage(String description, Long ownerId, Long categoryId, String status,
+                                                                      String cursor, Integer size, String sort) {
+        ProductSort productSort = ProductSort.fromParam(sort);
+        int pageSize = resolvePageSize(size);
+        ProductCursor position = cursor != null ? ProductCursor.decode(cursor, productSort) : null;
+
+        Specification<Product> spec = ProductSpecifications.filter(description, ownerId, categoryId, ProductSpecifications.parseStatus(status))
+                .and(ProductSpecifications.seek(productSort,
+                        position != null ? position.getSortValue() : null,
+                        position != null ? position.getLastId() : null))
+                .and(ProductSpecifications.fetchListAssociations());
+
+        // Si legge un elemento in più per sapere se esiste una pagina successiva senza una query di count
+        List<ProductResponseDTO> rows = productMapper.toResponseList(productRepository.findBy(spec, query -> query
+                .sortBy(ProductSpecifications.toSort(productSort))
+                .limit(pageSize + 1)
+                .all()));
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductResponseDTO> content = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasNext ? ProductCursor.after(productSort, content.get(content.size() - 1)).encode() : null;
+        return new CursorPageResponseDTO<>(content, pageSize, hasNext, nextCursor);
+    }
+
+    /**
+     * Come getFilteredProducts, ma in formato normalizzato: i prodotti vengono letti senza join su owner, seller
+     * e category, gli utenti con un'unica query IN (più quella in batch dei ruoli) e le categorie dalla cache.
+     */
+    public NormalizedProductListResponseDTO getNormalizedProducts(String description, Long ownerId, Long categoryId, String status) {
+        Specification<Product> spec = ProductSpecifications.filter(description, ownerId, categoryId, ProductSpecifications.parseStatus(status));
+        List<NormalizedProductResponseDTO> products = productMapper.toNormalizedResponseList(productRepository.findBy(spec, query -> query.all()));
+        return normalized(products, null, null, null);
+    }
+
+    /**
+     * Come getProductsPage, ma in formato normalizzato (vedi getNormalizedProducts).
+     * @throws IllegalArgumentException se il cursore o l'ordinamento non sono validi.
+     */
+    public NormalizedProductListResponseDTO getNormalizedProductsPage(String description, Long ownerId, Long categoryId, String status,
+                                                                      String cursor, Integer size, String sort) {
+        ProductSort productSort = ProductSort.fromParam(sort);
+        int pageSize = resolvePageSize(size);
+        ProductCursor position = cursor != null ? ProductCursor.decode(cursor, productSort) : null;
+
+        Specification<Product> spec = ProductSpecifications.filter(description, ownerId, categoryId, ProductSpecifications.parseStatus(status))
+                .and(ProductSpecifications.seek(productSort,
+                        position != null ? position.getSortValue() : null,
+                        position != null ? position.getLastId() : null));
+
+        List<NormalizedProductResponseDTO> rows = productMapper.toNormalizedResponseList(productRepository.findBy(spec, query -> query
+                .sortBy(ProductSpecifications.toSort(productSort))
+                .limit(pageSize + 1)
+                .all()));
+
+        boolean hasNext = rows.size() > pageSize;
+        List<NormalizedProductResponseDTO> content = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasNext ? ProductCursor.after(productSort, content.get(content.size() - 1)).encode() : null;
+        return normalized(content, pageSize, hasNext, nextCursor);
+    }
+
+    // Risolve una sola volta ogni utente e ogni categoria citati dai prodotti
+    private NormalizedProductListResponseDTO normalized(List<NormalizedProductResponseDTO> products,
+                                                        Integer size, Boolean hasNext, String nextCursor) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<Long> categoryIds = new LinkedHashSet<>();
+        for (NormalizedProductResponseDTO product : products) {
+            userIds.add(product.getOwnerId());
+            if (product.getSellerId() != null) {
+                userIds.add(product.getSellerId());
             }
-        } else {
-            isSold = null;
+            categoryIds.add(product.getCategoryId());
         }
 
-        // Creazione dinamica della Specification con un'unica lambda
-        Specification<Product> spec = (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
+        Map<Long, UserResponseDTO> users = new LinkedHashMap<>();
+        if (!userIds.isEmpty()) {
+            userRepository.findAllById(userIds).forEach(user -> users.put(user.getId(), userMapper.toResponse(user)));
+        }
+        Map<Long, CategoryResponseDTO> categories = new LinkedHashMap<>();
+        categoryIds.forEach(id -> categories.put(id, categoryLookupService.getCategory(id)));
+        return new NormalizedProductListResponseDTO(products, users, categories, size, hasNext, nextCursor);
+    }
 
-            if (description != null) {
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), "%" + description.toLowerCase() + "%"));
-            }
+    /**
+     * Come getFilteredProducts, ma con i soli campi richiesti (sparse fieldset): la query seleziona solo le colonne
+     * corrispondenti e non esegue join. Owner e seller, se richiesti, vengono letti con un'unica query IN,
+     * la categoria dalla cache.
+     * @param fields I nomi dei campi separati da virgola (vedi ProductField). L'ID è sempre incluso.
+     * @throws IllegalArgumentException se un campo non è valido.
+     */
+    public List<Map<String, Object>> getProductFields(String fields, String description, Long ownerId, Long categoryId, String status) {
+        Set<ProductField> requested = ProductField.fromParam(fields);
+        Specification<Product> spec = ProductSpecifications.filter(description, ownerId, categoryId, ProductSpecifications.parseStatus(status));
+        return resolveAssociations(productRepository.findFields(requested, spec, Sort.unsorted(), null), requested);
+    }
 
-            if (ownerId != null) {
-                predicates.add(criteriaBuilder.equal(root.get("owner").get("id"), ownerId));
-            }
+    /**
+     * Come getProductsPage, ma con i soli campi richiesti (vedi getProductFields).
+     * @throws IllegalArgumentException se un campo, il cursore o l'ordinamento non sono validi.
+     */
+    public CursorPageResponseDTO<Map<String, Object>> getProductFieldsPage(String fields, String description, Long ownerId, Long categoryId,
+                                                                           String status, String cursor, Integer size, String sort) {
+        Set<ProductField> requested = ProductField.fromParam(fields);
+        ProductSort productSort = ProductSort.fromParam(sort);
+        int pageSize = resolvePageSize(size);
+        ProductCursor position = cursor != null ? ProductCursor.decode(cursor, productSort) : null;
+
+        Specification<Product> spec = ProductSpecifications.filter(description, ownerId, categoryId, ProductSpecifications.parseStatus(status))
+                .and(ProductSpecifications.seek(productSort,
+                        position != null ? position.getSortValue() : null,
+                        position != null ? position.getLastId() : null));
+
+        // Il campo di ordinamento serve per il cursore anche se non è stato richiesto
+        ProductField sortField = productSort.isByPrice() ? ProductField.CURRENT_PRICE : ProductField.INSERTION_DATE;
+        Set<ProductField> selected = EnumSet.copyOf(requested);
+        selected.add(sortField);
+        List<Map<String, Object>> rows = productRepository.findFields(selected, spec, ProductSpecifications.toSort(productSort), pageSize + 1);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<Map<String, Object>> content = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Map<String, Object> last = content.get(content.size() - 1);
+            nextCursor = ProductCursor.after(productSort, (Long) last.get(ProductField.ID.getProperty()),
+                    (BigDecimal) last.get(ProductField.CURRENT_PRICE.getProperty()),
+                    (LocalDate) last.get(ProductField.INSERTION_DATE.getProperty())).encode();
+        }
+        if (!requested.contains(sortField)) {
+            content.forEach(row -> row.remove(sortField.getProperty()));
+        }
+        return new CursorPageResponseDTO<>(resolveAssociations(content, requested), pageSize, hasNext, nextCursor);
+    }
 
-            if (categoryId != null) {
-                predicates.add(criteriaBuilder.equal(root.get("category").get("id"), categoryId));
-            }
+    /**
+     * Come getProductById, ma con i soli campi richiesti (vedi getProductFields).
+     * @throws IllegalArgumentException se il prodotto non esiste o un campo non è valido.
+     */
+    public Map<String, Object> getProductFieldsById(Long id, String fields) {
+        Set<ProductField> requested = ProductField.fromParam(fields);
+        Specification<Product> spec = (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id);
+        List<Map<String, Object>> rows = productRepository.findFields(requested, spec, Sort.unsorted(), null);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Prodotto con ID " + id + " non trovato.");
+        }
+        return resolveAssociations(rows, requested).get(0);
+    }
 
-            if (isSold != null) {
-                predicates.add(criteriaBuilder.equal(root.get("sold"), isSold));
+    // Sostituisce gli ID di owner, seller e category con i rispettivi DTO, leggendo ogni utente una sola volta
+    private List<Map<String, Object>> resolveAssociations(List<Map<String, Object>> rows, Set<ProductField> fields) {
+        if (fields.contains(ProductField.OWNER) || fields.contains(ProductField.SELLER)) {
+            Set<Long> userIds = new LinkedHashSet<>();
+            for (Map<String, Object> row : rows) {
+                addIfPresent(userIds, row.get(ProductField.OWNER.getProperty()));
+                addIfPresent(userIds, row.get(ProductField.SELLER.getProperty()));
             }
+            Map<Long, UserResponseDTO> users = new LinkedHashMap<>();
+            if (!userIds.isEmpty()) {
+                userRepository.findAllById(userIds).forEach(user -> users.put(user.getId(), userMapper.toResponse(user)));
+            }
+            for (Map<String, Object> row : rows) {
+                row.computeIfPresent(ProductField.OWNER.getProperty(), (key, userId) -> users.get((Long) userId));
+                row.computeIfPresent(ProductField.SELLER.getProperty(), (key, userId) -> users.get((Long) userId));
+            }
+        }
+        if (fields.contains(ProductField.CATEGORY)) {
+            for (Map<String, Object> row : rows) {
+                row.computeIfPresent(ProductField.CATEGORY.getProperty(), (key, categoryId) -> categoryLookupService.getCategory((Long) categoryId));
+            }
+        }
+        return rows;
+    }
 
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        };
+    private static void addIfPresent(Set<Long> ids, Object id) {
+        if (id != null) {
+            ids.add((Long) id);
+        }
+    }
 
-        return productRepository.findAll(spec).stream()
-                .map(product -> modelMapper.map(product, ProductResponseDTO.class))
-                .collect(Collectors.toList());
+    /**
+     * Ricerca full-text su descrizione, marca e composizione, con risultati ordinati per rilevanza.
+     * Ogni parola della query deve comparire nel prodotto, anche solo come inizio di parola ("cot" trova "cotone").
+     * @param query Il testo cercato.
+     * @param page Il numero di pagina, a partire da 0 (null per la prima).
+     * @param size La dimensione di pagina, null per quella di default. Viene limitata a maxPageSize.
+     * @throws IllegalArgumentException se la query è vuota o la pagina non è valida.
+     */
+    public ProductSearchResponseDTO searchProducts(String query, Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Il testo da cercare non può essere vuoto.");
+        }
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Il numero di pagina non può essere negativo.");
+        }
+        int pageSize = resolvePageSize(size);
+        long offset = (long) pageNumber * pageSize;
+
+        ProductSearchHits hits = offset > Integer.MAX_VALUE
+                ? new ProductSearchHits(List.of(), 0)
+                : productSearchIndex.search(query, (int) offset, pageSize);
+
+        // Una sola query per i prodotti della pagina, poi si ripristina l'ordine di rilevanza
+        List<ProductResponseDTO> content = List.of();
+        if (!hits.getProductIds().isEmpty()) {
+            Map<Long, Product> productsById = productRepository.findByIdIn(hits.getProductIds()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            content = productMapper.toResponseList(hits.getProductIds().stream()
+                    .map(productsById::get)
+                    .filter(Objects::nonNull)
+                    .toList());
+        }
+        return new ProductSearchResponseDTO(query, content, pageNumber, pageSize, hits.getTotalHits(),
+                offset + pageSize < hits.getTotalHits());
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("La dimensione di pagina deve essere almeno 1.");
+        }
+        return Math.min(size, maxPageSize);
     }
 
     @Transactional
     public ProductResponseDTO assignProductToOwner(Long productId, Long newOwnerId) {
+        return assignProductToOwner(productId, newOwnerId, null);
+    }
+
+    /**
+     * Assegna il prodotto a un nuovo proprietario.
+     * @param expectedVersion La versione letta dal client (opzionale): se il prodotto è stato modificato nel frattempo
+     *                        l'assegnazione fallisce con ConflictException.
+     */
+    @Transactional
+    public ProductResponseDTO assignProductToOwner(Long productId, Long newOwnerId, Long expectedVersion) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Prodotto con ID " + productId + " non trovato."));
+        checkVersion(product, expectedVersion);
         User newOwner = userRepository.findById(newOwnerId)
                 .orElseThrow(() -> new IllegalArgumentException("Nuovo proprietario (User) con ID " + newOwnerId + " non trovato."));
+        ProductStatisticsService.Snapshot before = productStatisticsService.snapshot(product);
         product.setOwner(newOwner);
-        Product updatedProduct = productRepository.save(product);
-        return modelMapper.map(updatedProduct, ProductResponseDTO.class);
+        Product updatedProduct = productRepository.saveAndFlush(product); // Il flush aggiorna la versione restituita
+        productStatisticsService.productChanged(before, updatedProduct);
+        catalogVersionService.productsChanged(ownerIds(before, updatedProduct));
+        eventPublisher.publishEvent(ProductsChangedEvent.changed(updatedProduct.getId()));
+        return productMapper.toResponse(updatedProduct);
     }
 
+    /**
+     * Marca un prodotto come venduto.
+     * La vendita è un unico update condizionale ("... where sold = false and version = ?"): se due casse vendono lo stesso
+     * prodotto nello stesso momento, solo una delle due ha successo e l'altra riceve un conflitto. La versione è quella
+     * letta per calcolare commissione e statistiche, quindi una modifica di prezzo o proprietario confermata nel frattempo
+     * fa fallire la vendita invece di registrarla con i valori superati.
+     * @throws IllegalArgumentException se il prodotto o il venditore non esistono.
+     * @throws ConflictException se il prodotto è già stato venduto o è stato modificato dopo la lettura.
+     */
     @Transactional
     public ProductResponseDTO markProductAsSold(Long productId, Long sellerId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Prodotto con ID " + productId + " non trovato."));
 
         if (product.isSold()) {
-            throw new IllegalArgumentException("Il prodotto con ID " + productId + " è già stato venduto.");
+            throw new ConflictException("Il prodotto con ID " + productId + " è già stato venduto.");
         }
 
         User seller = userRepository.findById(sellerId)
@@ -158,15 +446,23 @@ public class ProductService {
         BigDecimal commissionRate = BigDecimal.valueOf(SELLER_PERCENTAGE);
         BigDecimal sellerCommission = currentPrice.multiply(commissionRate);
 
-        // Imposta la commissione nel prodotto prima di salvarlo
-        product.setSellerCommissionAmount(sellerCommission.doubleValue()); // Converti in Double se il campo è Double
-
-        product.markAsSold(seller); // Questo metodo imposta sold=true, saleDate e seller
-        // NOTA: il metodo markAsSold nell'entità Product non imposta sellerCommissionAmount.
-        // Lo facciamo qui direttamente prima di salvare.
+        ProductStatisticsService.Snapshot before = productStatisticsService.snapshot(product);
+        int updated = productRepository.markAsSoldIfAvailable(productId, product.getVersion(), seller, LocalDate.now(),
+                sellerCommission.doubleValue());
+        if (updated == 0) {
+            // Venduto o modificato da un'altra transazione tra la lettura e l'update: si rilegge per distinguere i due casi
+            boolean sold = productRepository.findById(productId).map(Product::isSold).orElse(false);
+            throw new ConflictException(sold
+                    ? "Il prodotto con ID " + productId + " è già stato venduto."
+                    : "Il prodotto con ID " + productId + " è stato modificato da un'altra operazione.");
+        }
 
-        Product soldProduct = productRepository.save(product);
-        return modelMapper.map(soldProduct, ProductResponseDTO.class);
+        // L'update ha svuotato il persistence context: si rilegge il prodotto aggiornato
+        Product soldProduct = productRepository.findById(productId).orElseThrow();
+        productStatisticsService.productChanged(before, soldProduct);
+        catalogVersionService.productsChanged(List.of(soldProduct.getOwner().getId()));
+        eventPublisher.publishEvent(ProductsChangedEvent.changed(soldProduct.getId()));
+        return productMapper.toResponse(soldProduct);
     }
 
     /**
@@ -175,34 +471,42 @@ public class ProductService {
      * @return ProductStatisticsResponseDTO.
      */
     public ProductStatisticsResponseDTO getProductStatistics(Long userId) {
-        List<Product> products;
-        if (userId != null) {
-            // Usa il metodo findByOwnerId dal repository
-            products = productRepository.findByOwnerId(userId);
-        } else {
-            products = productRepository.findAll();
-        }
-
-        long totalItems = products.size();
-        long soldItems = products.stream().filter(Product::isSold).count();
-        long availableItems = totalItems - soldItems;
-        BigDecimal totalRevenue = products.stream()
-                .filter(Product::isSold)
-                .map(Product::getCurrentPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return getProductStatistics(userId, false, false);
+    }
 
-        // Calcolo dell'incasso potenziale (somma dei prezzi dei prodotti disponibili)
-        BigDecimal potentialRevenue = products.stream()
-                .filter(product -> !product.isSold())
-                .map(Product::getCurrentPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Recupera le statistiche dei prodotti. I totali vengono letti dal read model product_statistics
+     * (lookup per chiave primaria, vedi ProductStatisticsService); i dettagli opzionali sono calcolati
+     * direttamente nel database con query aggregate.
+     * @param userId L'ID dell'utente proprietario, null per le statistiche totali.
+     * @param byCategory Se true aggiunge il dettaglio per categoria.
+     * @param byMonth Se true aggiunge il dettaglio delle vendite per mese della data di vendita.
+     * @return ProductStatisticsResponseDTO.
+     */
+    public ProductStatisticsResponseDTO getProductStatistics(Long userId, boolean byCategory, boolean byMonth) {
+        ProductStatisticsResponseDTO statistics = productStatisticsService.getStatistics(userId);
+
+        if (byCategory) {
+            List<CategoryStatisticsView> rows = userId != null
+                    ? productRepository.aggregateStatisticsByCategoryForOwner(userId)
+                    : productRepository.aggregateStatisticsByCategory();
+            statistics.setByCategory(rows.stream()
+                    .map(row -> new CategoryStatisticsResponseDTO(row.getCategoryId(), row.getCategoryName(),
+                            row.getTotalItems(), row.getSoldItems(), row.getTotalItems() - row.getSoldItems(),
+                            row.getTotalRevenue(), row.getPotentialRevenue()))
+                    .toList());
+        }
 
-        // NOTA: Per restituire anche potentialRevenue, è necessario
-        // aggiungere un campo 'potentialRevenue' al DTO ProductStatisticsResponseDTO.
-        // Esempio:
-        // return new ProductStatisticsResponseDTO(totalItems, soldItems, availableItems, totalRevenue, potentialRevenue);
+        if (byMonth) {
+            List<MonthlySalesView> rows = userId != null
+                    ? productRepository.aggregateMonthlySalesForOwner(userId)
+                    : productRepository.aggregateMonthlySales();
+            statistics.setByMonth(rows.stream()
+                    .map(row -> new MonthlySalesResponseDTO(row.getYear(), row.getMonth(), row.getSoldItems(), row.getTotalRevenue()))
+                    .toList());
+        }
 
-        return new ProductStatisticsResponseDTO(totalItems, soldItems, availableItems, potentialRevenue, totalRevenue);
+        return statistics;
     }
 
     /**
@@ -212,11 +516,14 @@ public class ProductService {
      * @param productDto Il DTO con i dati aggiornati del prodotto.
      * @return Il ProductResponseDTO del prodotto aggiornato.
      * @throws IllegalArgumentException Se il prodotto non viene trovato.
+     * @throws ConflictException Se la versione indicata nel DTO non è più quella corrente.
      */
     @Transactional
     public ProductResponseDTO updateProduct(Long productId, ProductUpdateRequestDTO productDto) {
         Product existingProduct = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Prodotto con ID " + productId + " non trovato per l'aggiornamento."));
+        checkVersion(existingProduct, productDto.getVersion());
+        ProductStatisticsService.Snapshot before = productStatisticsService.snapshot(existingProduct);
 
         // Aggiorna solo i campi che sono forniti (non null) nel DTO
         if (productDto.getDescription() != null) {
@@ -249,9 +556,7 @@ public class ProductService {
 
         // Gestione di categoryId
         if (productDto.getCategoryId() != null) {
-            Category newCategory = categoryRepository.findById(productDto.getCategoryId())
-                    .orElseThrow(() -> new IllegalArgumentException("Categoria con ID " + productDto.getCategoryId() + " non trovata."));
-            existingProduct.setCategory(newCategory);
+            existingProduct.setCategory(categoryReference(productDto.getCategoryId()));
         }
 
         // Gestione dello stato 'sold'
@@ -265,8 +570,58 @@ public class ProductService {
             }
         }
 
-        Product updatedProduct = productRepository.save(existingProduct);
-        return modelMapper.map(updatedProduct, ProductResponseDTO.class);
+        Product updatedProduct;
+        try {
+            updatedProduct = productRepository.saveAndFlush(existingProduct); // Il flush aggiorna la versione restituita
+        } catch (DataIntegrityViolationException e) {
+            if (productDto.getCategoryId() == null) {
+                throw e;
+            }
+            throw categoryNotFound(productDto.getCategoryId(), e);
+        }
+        productStatisticsService.productChanged(before, updatedProduct);
+        catalogVersionService.productsChanged(ownerIds(before, updatedProduct));
+        eventPublisher.publishEvent(ProductsChangedEvent.changed(updatedProduct.getId()));
+        return toResponse(updatedProduct);
+    }
+
+    // Proprietario precedente e nuovo: cambiano le liste e le statistiche di entrambi
+    private static Set<Long> ownerIds(ProductStatisticsService.Snapshot before, Product after) {
+        Set<Long> ownerIds = new TreeSet<>(before.ownerIds());
+        ownerIds.add(after.getOwner().getId());
+        return ownerIds;
+    }
+
+    // Le modifiche concorrenti tra lettura e commit sono rilevate da @Version; qui si rifiutano subito
+    // quelle basate su una versione che il client ha letto prima di un'altra modifica
+    private void checkVersion(Product product, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new ConflictException("Il prodotto con ID " + product.getId() + " è stato modificato da un'altra operazione.");
+        }
+    }
+
+    // La cache serve solo a verificare che la categoria esista; il riferimento è un proxy gestito, che per la chiave
+    // esterna usa solo l'ID e non esegue query. Se la voce in cache è superata (categoria eliminata da un'altra istanza
+    // o non ancora rimossa dalla cache) l'insert viola la chiave esterna: vedi categoryNotFound
+    private Category categoryReference(Long categoryId) {
+        categoryLookupService.getCategory(categoryId);
+        return entityManager.getReference(Category.class, categoryId);
+    }
+
+    // L'unico riferimento non letto nella transazione è la categoria: la violazione della chiave esterna significa
+    // che non esiste più, e il chiamante riceve lo stesso errore di una categoria mai esistita
+    private static IllegalArgumentException categoryNotFound(Long categoryId, DataIntegrityViolationException cause) {
+        return new IllegalArgumentException("Categoria con ID " + categoryId + " non trovata.", cause);
+    }
+
+    // Con la categoria ancora da caricare (es. il riferimento di categoryReference) il DTO viene preso dalla cache
+    private ProductResponseDTO toResponse(Product product) {
+        if (Hibernate.isInitialized(product.getCategory())) {
+            return productMapper.toResponse(product);
+        }
+        ProductResponseDTO response = productMapper.toResponseWithoutCategory(product);
+        response.setCategory(categoryLookupService.getCategory(product.getCategory().getId()));
+        return response;
     }
 
     /**
@@ -275,19 +630,42 @@ public class ProductService {
      */
     @Transactional
     public void deleteProduct(Long productId) {
-        if (!productRepository.existsById(productId)) {
-            throw new IllegalArgumentException("Prodotto con ID " + productId + " non trovato per l'eliminazione.");
-        }
-        productRepository.deleteById(productId);
+        // Il lock sulla riga del prodotto precede gli aggiornamenti delle statistiche (vedi ProductStatisticsService)
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Prodotto con ID " + productId + " non trovato per l'eliminazione."));
+        productStatisticsService.productRemoved(productStatisticsService.snapshot(product));
+        catalogVersionService.productsChanged(List.of(product.getOwner().getId()));
+        productRepository.delete(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.deleted(List.of(productId)));
     }
 
     /**
-     * Elimina più prodotti dati i loro ID.
+     * Elimina più prodotti dati i loro ID, con statement set-based in un'unica transazione.
+     * Per eliminazioni molto grandi o basate su un filtro usare ProductBulkDeleteService.
      * @param productIds La lista degli ID dei prodotti da eliminare.
      */
     @Transactional
     public void deleteProductsByIds(List<Long> productIds) {
-        productRepository.deleteAllById(productIds);
+        productBulkDeleteService.deleteByIds(productIds);
+    }
+
+    /**
+     * Da chiamare prima di eliminare un utente: i suoi prodotti vengono eliminati a cascata
+     * e vanno tolti dalle statistiche e dall'indice di ricerca.
+     */
+    @Transactional
+    public void ownerDeleting(Long ownerId) {
+        eventPublisher.publishEvent(ProductsChangedEvent.deleted(productStatisticsService.ownerRemoved(ownerId)));
+        catalogVersionService.productsChanged(List.of(ownerId));
+    }
+
+    /**
+     * Da chiamare prima di eliminare una categoria, i cui prodotti vengono eliminati a cascata.
+     */
+    @Transactional
+    public void categoryDeleting(Long categoryId) {
+        eventPublisher.publishEvent(ProductsChangedEvent.deleted(productStatisticsService.categoryRemoved(categoryId)));
+        catalogVersionService.allProductsChanged(); // I prodotti eliminati possono appartenere a qualsiasi proprietario
     }
 
     /**
@@ -300,8 +678,6 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Prodotto con ID " + productId + " non trovato per recuperare la cronologia prezzi."));
 
-        return product.getPriceHistory().stream()
-                .map(priceRecord -> modelMapper.map(priceRecord, ProductPriceResponseDTO.class))
-                .collect(Collectors.toList());
+        return productPriceMapper.toResponseList(product.getPriceHistory());
     }
 }
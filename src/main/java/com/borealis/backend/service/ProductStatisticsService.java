@@ -0,0 +1,292 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.dto.response.ProductStatisticsResponseDTO;
+import com.borealis.backend.model.Product;
+import com.borealis.backend.model.ProductStatistics;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.ProductStatisticsRepository;
+import com.borealis.backend.repository.projection.OwnerStatisticsView;
+import com.borealis.backend.repository.projection.ProductStatisticsView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Gestisce il read model delle statistiche prodotti (tabella product_statistics).
+ * I metodi di scrittura di ProductService comunicano qui il contributo dei prodotti creati, modificati o eliminati:
+ * gli incrementi vengono applicati nella stessa transazione, prima sulla riga globale e poi su quelle dei proprietari
+ * in ordine di ID.
+ * Per evitare deadlock tra transazioni concorrenti, tutte le scritture bloccano prima le righe di products coinvolte
+ * e solo dopo quelle di product_statistics: modifiche e vendite aggiornando il prodotto prima di chiamare productChanged,
+ * le eliminazioni con lockSnapshot (o con le varianti per proprietario e categoria), che bloccano le righe da eliminare
+ * e ne calcolano il contributo da quelle bloccate, così che una vendita concorrente non possa cambiarlo nel frattempo.
+ * Le versioni del catalogo usate per gli ETag (CatalogVersionService) sono aggiornate dai chiamanti; qui solo dalla
+ * ricostruzione, che può correggere i contatori di qualsiasi proprietario.
+ */
+@Service
+public class ProductStatisticsService {
+
+    private final ProductStatisticsRepository statisticsRepository;
+    private final ProductRepository productRepository;
+    private final CatalogVersionService catalogVersionService;
+
+    @Autowired
+    public ProductStatisticsService(ProductStatisticsRepository statisticsRepository, ProductRepository productRepository,
+                                    CatalogVersionService catalogVersionService) {
+        this.statisticsRepository = statisticsRepository;
+        this.productRepository = productRepository;
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    /**
+     * Contributo di uno o più prodotti alle statistiche dei loro proprietari.
+     * Va catturato prima di modificare o eliminare i prodotti e passato a productChanged/productRemoved.
+     */
+    public static final class Snapshot {
+        private final Map<Long, Delta> deltasByOwner;
+
+        private Snapshot(Map<Long, Delta> deltasByOwner) {
+            this.deltasByOwner = deltasByOwner;
+        }
+
+        /**
+         * I proprietari dei prodotti catturati.
+         */
+        public Set<Long> ownerIds() {
+            return deltasByOwner.keySet();
+        }
+
+        private Map<Long, Delta> negated() {
+            Map<Long, Delta> negated = new TreeMap<>();
+            deltasByOwner.forEach((ownerId, delta) -> negated.put(ownerId, delta.negate()));
+            return negated;
+        }
+    }
+
+    /**
+     * Variazione dei contatori di una riga di statistiche.
+     */
+    public static final class Delta {
+        private static final Delta ZERO = new Delta(0, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        private final long totalItems;
+        private final long soldItems;
+        private final BigDecimal totalRevenue;
+        private final BigDecimal potentialRevenue;
+
+        private Delta(long totalItems, long soldItems, BigDecimal totalRevenue, BigDecimal potentialRevenue) {
+            this.totalItems = totalItems;
+            this.soldItems = soldItems;
+            this.totalRevenue = totalRevenue;
+            this.potentialRevenue = potentialRevenue;
+        }
+
+        private static Delta of(Product product) {
+            BigDecimal price = product.getCurrentPrice() != null ? product.getCurrentPrice() : BigDecimal.ZERO;
+            return product.isSold()
+                    ? new Delta(1, 1, price, BigDecimal.ZERO)
+                    : new Delta(1, 0, BigDecimal.ZERO, price);
+        }
+
+        private static Delta of(ProductStatisticsView view) {
+            return new Delta(view.getTotalItems(), view.getSoldItems(), view.getTotalRevenue(), view.getPotentialRevenue());
+        }
+
+        private Delta plus(Delta other) {
+            return new Delta(totalItems + other.totalItems, soldItems + other.soldItems,
+                    totalRevenue.add(other.totalRevenue), potentialRevenue.add(other.potentialRevenue));
+        }
+
+        private Delta negate() {
+            return new Delta(-totalItems, -soldItems, totalRevenue.negate(), potentialRevenue.negate());
+        }
+
+        private boolean isZero() {
+            return totalItems == 0 && soldItems == 0 && totalRevenue.signum() == 0 && potentialRevenue.signum() == 0;
+        }
+    }
+
+    /**
+     * Contributo di un prodotto già bloccato dalla transazione corrente (letto con lock o appena aggiornato).
+     */
+    public Snapshot snapshot(Product product) {
+        return new Snapshot(Map.of(product.getOwner().getId(), Delta.of(product)));
+    }
+
+    /**
+     * Blocca le righe dei prodotti indicati (select ... for update in ordine di ID) e ne cattura il contributo,
+     * calcolato con una query aggregata per proprietario sulle righe bloccate. Gli ID che non esistono più vengono ignorati.
+     * Va chiamato prima di eliminare i prodotti, passando il risultato a productRemoved.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Snapshot lockSnapshot(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return new Snapshot(Map.of());
+        }
+        return aggregate(productRepository.lockIdsByIdIn(productIds));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productAdded(Product product) {
+        apply(Map.of(product.getOwner().getId(), Delta.of(product)));
+    }
+
+    /**
+     * Aggiunge il contributo dei prodotti indicati, già inseriti nella transazione corrente (es. inserimenti JDBC in blocco):
+     * il contributo viene calcolato con una query aggregata per proprietario.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productsAdded(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (OwnerStatisticsView row : productRepository.aggregateStatisticsByOwnerForIds(productIds)) {
+            deltas.put(row.getOwnerId(), Delta.of(row));
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Registra la vendita dei prodotti indicati, che devono essere ancora nello stato precedente (non venduti).
+     * Usato quando la vendita avviene con un update diretto sul database invece che modificando le entità.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productsSold(Collection<Product> unsoldProducts) {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (Product product : unsoldProducts) {
+            Delta unsold = Delta.of(product);
+            Delta sold = new Delta(1, 1, unsold.potentialRevenue, BigDecimal.ZERO);
+            deltas.merge(product.getOwner().getId(), sold.plus(unsold.negate()), Delta::plus);
+        }
+        apply(deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productChanged(Snapshot before, Product after) {
+        Map<Long, Delta> deltas = before.negated();
+        deltas.merge(after.getOwner().getId(), Delta.of(after), Delta::plus);
+        apply(deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productRemoved(Snapshot before) {
+        apply(before.negated());
+    }
+
+    /**
+     * Sottrae i prodotti di una categoria, eliminati a cascata insieme ad essa. Va chiamato prima dell'eliminazione:
+     * le righe dei prodotti vengono bloccate prima di calcolarne il contributo.
+     * @return Gli ID dei prodotti bloccati, che verranno eliminati.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> categoryRemoved(Long categoryId) {
+        List<Long> productIds = productRepository.lockIdsByCategoryId(categoryId);
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (OwnerStatisticsView row : productRepository.aggregateStatisticsByOwnerForCategory(categoryId)) {
+            deltas.put(row.getOwnerId(), Delta.of(row).negate());
+        }
+        apply(deltas);
+        return productIds;
+    }
+
+    /**
+     * Sottrae i prodotti di un utente, eliminati a cascata insieme ad esso, e rimuove la sua riga.
+     * Va chiamato prima dell'eliminazione: le righe dei prodotti vengono bloccate prima di calcolarne il contributo.
+     * @return Gli ID dei prodotti bloccati, che verranno eliminati.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> ownerRemoved(Long ownerId) {
+        List<Long> productIds = productRepository.lockIdsByOwnerId(ownerId);
+        Delta removed = Delta.of(productRepository.aggregateStatisticsByOwner(ownerId)).negate();
+        applyTo(ProductStatistics.GLOBAL_KEY, removed, LocalDateTime.now());
+        statisticsRepository.deleteAllByIdInBatch(List.of(ownerId));
+        return productIds;
+    }
+
+    /**
+     * Statistiche lette dal read model con una lookup per chiave primaria.
+     * @param ownerId L'ID del proprietario, null per le statistiche globali.
+     */
+    @Transactional(readOnly = true)
+    public ProductStatisticsResponseDTO getStatistics(Long ownerId) {
+        return statisticsRepository.findById(ownerId != null ? ownerId : ProductStatistics.GLOBAL_KEY)
+                .map(row -> new ProductStatisticsResponseDTO(row.getTotalItems(), row.getSoldItems(),
+                        row.getTotalItems() - row.getSoldItems(), row.getTotalRevenue(), row.getPotentialRevenue()))
+                .orElseGet(() -> new ProductStatisticsResponseDTO(0, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
+
+    /**
+     * true se il read model è già stato costruito (esiste la riga globale).
+     */
+    @Transactional(readOnly = true)
+    public boolean isInitialized() {
+        return statisticsRepository.existsById(ProductStatistics.GLOBAL_KEY);
+    }
+
+    /**
+     * Ricalcola da zero il read model a partire dalla tabella products (riconciliazione).
+     * La riga globale viene bloccata per prima: le scritture concorrenti, che la aggiornano sempre per prima,
+     * attendono la fine della ricostruzione invece di applicare incrementi su righe appena ricalcolate.
+     * @return Le statistiche globali ricalcolate.
+     */
+    @Transactional
+    public ProductStatisticsResponseDTO rebuild() {
+        statisticsRepository.insertEmptyIfAbsent(ProductStatistics.GLOBAL_KEY);
+        ProductStatistics global = statisticsRepository.findByOwnerKey(ProductStatistics.GLOBAL_KEY);
+
+        statisticsRepository.deleteOwnerRows();
+        statisticsRepository.insertOwnerRowsFromProducts();
+
+        ProductStatisticsView totals = productRepository.aggregateStatistics();
+        global.setTotalItems(totals.getTotalItems());
+        global.setSoldItems(totals.getSoldItems());
+        global.setTotalRevenue(totals.getTotalRevenue());
+        global.setPotentialRevenue(totals.getPotentialRevenue());
+        global.setUpdatedAt(LocalDateTime.now());
+        statisticsRepository.save(global);
+        catalogVersionService.allProductsChanged();
+        return getStatistics(null);
+    }
+
+    private Snapshot aggregate(Collection<Long> productIds) {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        if (!productIds.isEmpty()) {
+            for (OwnerStatisticsView row : productRepository.aggregateStatisticsByOwnerForIds(productIds)) {
+                deltas.put(row.getOwnerId(), Delta.of(row));
+            }
+        }
+        return new Snapshot(deltas);
+    }
+
+    private void apply(Map<Long, Delta> deltasByOwner) {
+        if (deltasByOwner.isEmpty()) {
+            return;
+        }
+        Delta total = deltasByOwner.values().stream().reduce(Delta.ZERO, Delta::plus);
+        LocalDateTime now = LocalDateTime.now();
+        applyTo(ProductStatistics.GLOBAL_KEY, total, now);
+        new TreeMap<>(deltasByOwner).forEach((ownerId, delta) -> applyTo(ownerId, delta, now));
+    }
+
+    private void applyTo(Long ownerKey, Delta delta, LocalDateTime now) {
+        if (delta.isZero()) {
+            return;
+        }
+        int updated = statisticsRepository.applyDelta(ownerKey, delta.totalItems, delta.soldItems, delta.totalRevenue, delta.potentialRevenue, now);
+        if (updated == 0) {
+            // Primo prodotto del proprietario (o read model non ancora costruito): crea la riga e riapplica
+            statisticsRepository.insertEmptyIfAbsent(ownerKey);
+            statisticsRepository.applyDelta(ownerKey, delta.totalItems, delta.soldItems, delta.totalRevenue, delta.potentialRevenue, now);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.Enum.Role;
+import com.borealis.backend.search.ProductSearchIndexUpdater;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Genera un catalogo sintetico di dimensioni realistiche per sviluppo, benchmark e test di carico.
+ * - Prodotti per proprietario con distribuzione a legge di potenza (Zipf): pochi proprietari con moltissimi prodotti,
+ *   molti con pochi; le categorie seguono una distribuzione analoga ma meno sbilanciata.
+ * - Storico prezzi con più voci: ogni prodotto parte da un prezzo log-normale e può subire ribassi successivi.
+ * - Una quota di prodotti venduti, con venditore, commissione e data di vendita successiva all'ultimo ribasso.
+ * Le righe vengono inserite con batch JDBC (come ProductBatchService), un blocco per transazione; alla fine vengono
+ * ricostruiti read model delle statistiche e indice di ricerca.
+ * Con lo stesso seed, suffisso e data di riferimento (vedi generate) il contenuto del dataset è sempre lo stesso, a parte gli ID.
+ * Durante la generazione gli utenti hanno un'email provvisoria legata al suffisso: le email definitive ({@link #email(int)})
+ * vengono assegnate in un'unica transazione solo alla fine, quindi un dataset con l'email definitiva è sempre completo
+ * e i resti di una generazione interrotta si possono riconoscere ed eliminare (deleteIncomplete).
+ * Le email definitive sono fisse, quindi un database contiene al più un dataset completo.
+ */
+@Service
+public class SyntheticDataGenerator {
+
+    private static final String EMAIL_DOMAIN = "@dataset.borealis.com";
+    private static final String PENDING_EMAIL = ".in-corso-"; // Tra indice e suffisso nelle email provvisorie
+    private static final double CATEGORY_SKEW = 0.8;
+    private static final int MAX_PRICES = 6; // Voci massime dello storico prezzi di un prodotto
+    private static final int HISTORY_DAYS = 730; // Le date di inserimento coprono gli ultimi due anni
+
+    private static final String INSERT_USER = "insert into users (name, email, password) values (?, ?, ?)";
+    private static final String INSERT_ROLE = "insert into user_roles (user_id, role_name) values (?, ?)";
+    private static final String INSERT_CATEGORY = "insert into categories (name) values (?)";
+    private static final String INSERT_PRODUCT = "insert into products"
+            + " (owner_id, category_id, description, size, composition, brand, gender, current_price, insertion_date,"
+            + " sold, sale_date, seller_id, seller_commission_amount, version)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_PRICE = "insert into product_prices (product_id, price, modification_date) values (?, ?, ?)";
+    private static final String UPDATE_EMAIL = "update users set email = ? where id = ?";
+
+    // Utenti di generazioni interrotte e righe collegate, eliminati da deleteIncomplete
+    private static final String PENDING_USERS = "select id from users where email like ?";
+    private static final String DELETE_PENDING_PRICES = "delete from product_prices where product_id in (select id from products"
+            + " where owner_id in (" + PENDING_USERS + ") or seller_id in (" + PENDING_USERS + "))";
+    private static final String DELETE_PENDING_PRODUCTS = "delete from products"
+            + " where owner_id in (" + PENDING_USERS + ") or seller_id in (" + PENDING_USERS + ")";
+    private static final String DELETE_PENDING_ROLES = "delete from user_roles where user_id in (" + PENDING_USERS + ")";
+    private static final String DELETE_PENDING_CATEGORIES = "delete from categories c where c.name like ?"
+            + " and not exists (select 1 from products p where p.category_id = c.id)";
+
+    private static final String[] TYPES = {"Maglione", "Cardigan", "Giacca", "Cappotto", "Camicia", "Pantaloni",
+            "Gonna", "Vestito", "Borsa", "Sciarpa", "Scarpe", "Cappello"};
+    private static final String[] MATERIALS = {"lana", "cotone", "seta", "pelle", "lino", "cashmere", "viscosa"};
+    private static final String[] COLORS = {"blu", "nero", "rosso", "beige", "verde", "grigio", "bianco", "marrone"};
+    private static final String[] BRANDS = {"Borealis", "Aurora", "Fiordo", "Nordica", "Artica", "Polare", "Tundra",
+            "Vintage", "Senza marca"};
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "Unica"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ProductStatisticsService productStatisticsService;
+    private final ProductSearchIndexUpdater productSearchIndexUpdater;
+    private final CategoryLookupService categoryLookupService;
+    private final CatalogVersionService catalogVersionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${borealis.app.syntheticSoldRatio:0.4}") // Quota di prodotti venduti
+    private double soldRatio;
+
+    @Value("${borealis.app.syntheticOwnerSkew:1.1}") // Esponente della legge di potenza dei prodotti per proprietario
+    private double ownerSkew;
+
+    @Value("${borealis.app.syntheticPriceDropRate:0.35}") // Probabilità di un ulteriore ribasso dopo ogni prezzo
+    private double priceDropRate;
+
+    @Value("${borealis.app.syntheticSeed:42}")
+    private long seed;
+
+    @Value("${borealis.app.jdbcBatchSize:200}") // Righe per ogni batch JDBC e per ogni transazione
+    private int jdbcBatchSize;
+
+    @Autowired
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+                                  ProductStatisticsService productStatisticsService,
+                                  ProductSearchIndexUpdater productSearchIndexUpdater,
+                                  CategoryLookupService categoryLookupService, CatalogVersionService catalogVersionService,
+                                  PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.productStatisticsService = productStatisticsService;
+        this.productSearchIndexUpdater = productSearchIndexUpdater;
+        this.categoryLookupService = categoryLookupService;
+        this.catalogVersionService = catalogVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Email dell'utente sintetico di posizione index (0 = il proprietario con più prodotti).
+     */
+    public static String email(int index) {
+        return "utente-" + index + EMAIL_DOMAIN;
+    }
+
+    private static String pendingEmail(int index, String run) {
+        return "utente-" + index + PENDING_EMAIL + run + EMAIL_DOMAIN;
+    }
+
+    /**
+     * Utenti, categorie e prodotti generati; gli utenti sono in ordine di posizione nella distribuzione.
+     */
+    public static final class Dataset {
+        private final List<Long> userIds;
+        private final List<Long> categoryIds;
+        private final int products;
+        private final int soldProducts;
+        private final int prices;
+
+        private Dataset(List<Long> userIds, List<Long> categoryIds, int products, int soldProducts, int prices) {
+            this.userIds = userIds;
+            this.categoryIds = categoryIds;
+            this.products = products;
+            this.soldProducts = soldProducts;
+            this.prices = prices;
+        }
+
+        public List<Long> getUserIds() {
+            return userIds;
+        }
+
+        public List<Long> getCategoryIds() {
+            return categoryIds;
+        }
+
+        public int getProducts() {
+            return products;
+        }
+
+        public int getSoldProducts() {
+            return soldProducts;
+        }
+
+        public int getPrices() {
+            return prices;
+        }
+    }
+
+    /**
+     * Inserisce il dataset accanto ai dati esistenti, con suffisso derivato dall'ora corrente e date relative a oggi.
+     * @see #generate(int, int, int, String, String, LocalDate)
+     */
+    public Dataset generate(int users, int categories, int products, String password) {
+        return generate(users, categories, products, password, Long.toString(System.currentTimeMillis(), 36), LocalDate.now());
+    }
+
+    /**
+     * Inserisce il dataset accanto ai dati esistenti, che non devono contenere già un dataset completo:
+     * le email definitive sono sempre {@link #email(int)}, e il controllo avviene prima di inserire qualsiasi riga.
+     * Gli utenti hanno ruolo USER e la stessa password (codificata una volta sola).
+     * @param users Numero di utenti, che sono sia proprietari sia venditori.
+     * @param categories Numero di categorie.
+     * @param products Numero di prodotti.
+     * @param password La password in chiaro degli utenti.
+     * @param run Suffisso dei nomi di categoria (unici) e delle email provvisorie, diverso da quello delle generazioni
+     *            interrotte non ancora eliminate.
+     * @param referenceDate Data più recente di inserimenti, ribassi e vendite.
+     * @throws IllegalArgumentException se utenti o categorie sono zero mentre i prodotti no.
+     * @throws IllegalStateException se il database contiene già un dataset sintetico completo.
+     */
+    public Dataset generate(int users, int categories, int products, String password, String run, LocalDate referenceDate) {
+        if (products > 0 && (users <= 0 || categories <= 0)) {
+            throw new IllegalArgumentException("Servono almeno un utente e una categoria per generare prodotti.");
+        }
+        if (users > 0 && jdbcTemplate.queryForObject("select count(*) from users where email = ?", Long.class, email(0)) > 0) {
+            throw new IllegalStateException("Il database contiene già un dataset sintetico (utente " + email(0) + ").");
+        }
+        Dataset dataset = insertPending(users, categories, products, password, run, referenceDate);
+
+        // Dataset completo: le email definitive rendono visibile il marcatore usato da DataInitializer
+        List<Object[]> emails = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            emails.add(new Object[] {email(i), dataset.getUserIds().get(i)});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_EMAIL, emails));
+
+        productStatisticsService.rebuild();
+        productSearchIndexUpdater.rebuild();
+        categoryLookupService.evictAll();
+        catalogVersionService.categoriesChanged();
+        catalogVersionService.usersChanged();
+        return dataset;
+    }
+
+    // Inserisce utenti (con le email provvisorie), categorie e prodotti: da sola equivale a una generazione interrotta
+    Dataset insertPending(int users, int categories, int products, String password, String run, LocalDate referenceDate) {
+        Random random = new Random(seed);
+        String passwordHash = passwordEncoder.encode(password);
+
+        List<Long> userIds = new ArrayList<>(users);
+        for (int from = 0; from < users; from += jdbcBatchSize) {
+            int start = from;
+            int count = Math.min(jdbcBatchSize, users - from);
+            userIds.addAll(transactionTemplate.execute(status -> insertUsers(start, count, passwordHash, run)));
+        }
+        List<Long> categoryIds = new ArrayList<>(categories);
+        for (int from = 0; from < categories; from += jdbcBatchSize) {
+            int start = from;
+            int count = Math.min(jdbcBatchSize, categories - from);
+            categoryIds.addAll(transactionTemplate.execute(status -> insertKeyed(INSERT_CATEGORY, count,
+                    (ps, i) -> ps.setString(1, "Categoria " + (start + i) + " " + run))));
+        }
+
+        ZipfSampler owners = new ZipfSampler(users, ownerSkew);
+        ZipfSampler categoryRanks = new ZipfSampler(categories, CATEGORY_SKEW);
+        int sold = 0;
+        int prices = 0;
+        for (int from = 0; from < products; from += jdbcBatchSize) {
+            List<SyntheticProduct> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + jdbcBatchSize, products); i++) {
+                SyntheticProduct product = randomProduct(random, referenceDate,
+                        userIds.get(owners.sample(random)), categoryIds.get(categoryRanks.sample(random)));
+                if (product.sold) {
+                    product.sellerId = userIds.get(random.nextInt(users));
+                    sold++;
+                }
+                prices += product.prices.size();
+                chunk.add(product);
+            }
+            transactionTemplate.executeWithoutResult(status -> insertProducts(chunk));
+        }
+        return new Dataset(userIds, categoryIds, products, sold, prices);
+    }
+
+    /**
+     * Elimina i resti delle generazioni interrotte: utenti con email provvisoria, i loro prodotti con lo storico prezzi
+     * e le categorie di quelle generazioni rimaste senza prodotti. Non tocca i dataset completi.
+     * Le statistiche non vengono aggiornate: va eseguito prima di una nuova generazione, che le ricalcola.
+     * @return Il numero di utenti eliminati.
+     */
+    public int deleteIncomplete() {
+        String pendingUsers = "%" + PENDING_EMAIL + "%" + EMAIL_DOMAIN;
+        List<String> runs = jdbcTemplate.queryForList("select email from users where email like ?", String.class, pendingUsers).stream()
+                .map(email -> email.substring(email.indexOf(PENDING_EMAIL) + PENDING_EMAIL.length(), email.length() - EMAIL_DOMAIN.length()))
+                .distinct()
+                .toList();
+        if (runs.isEmpty()) {
+            return 0;
+        }
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_PENDING_PRICES, pendingUsers, pendingUsers);
+            jdbcTemplate.update(DELETE_PENDING_PRODUCTS, pendingUsers, pendingUsers);
+            jdbcTemplate.update(DELETE_PENDING_ROLES, pendingUsers);
+            int deleted = jdbcTemplate.update("delete from users where email like ?", pendingUsers);
+            runs.forEach(run -> jdbcTemplate.update(DELETE_PENDING_CATEGORIES, "Categoria % " + run));
+            categoryLookupService.evictAll();
+            catalogVersionService.allProductsChanged();
+            catalogVersionService.categoriesChanged();
+            catalogVersionService.usersChanged();
+            return deleted;
+        });
+    }
+
+    private List<Long> insertUsers(int start, int count, String passwordHash, String run) {
+        List<Long> ids = insertKeyed(INSERT_USER, count, (ps, i) -> {
+            ps.setString(1, "Utente sintetico " + (start + i));
+            ps.setString(2, pendingEmail(start + i, run));
+            ps.setString(3, passwordHash);
+        });
+        jdbcTemplate.batchUpdate(INSERT_ROLE, ids, ids.size(), (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setString(2, Role.ROLE_USER.name());
+        });
+        return ids;
+    }
+
+    private void insertProducts(List<SyntheticProduct> chunk) {
+        List<Long> ids = insertKeyed(INSERT_PRODUCT, chunk.size(), (ps, i) -> {
+            SyntheticProduct product = chunk.get(i);
+            BigDecimal currentPrice = product.prices.get(product.prices.size() - 1);
+            ps.setLong(1, product.ownerId);
+            ps.setLong(2, product.categoryId);
+            ps.setString(3, product.description);
+            ps.setString(4, product.size);
+            ps.setString(5, product.composition);
+            ps.setString(6, product.brand);
+            ps.setString(7, product.gender.name());
+            ps.setBigDecimal(8, currentPrice);
+            ps.setDate(9, Date.valueOf(product.insertionDate));
+            ps.setBoolean(10, product.sold);
+            if (product.sold) {
+                ps.setDate(11, Date.valueOf(product.saleDate));
+                ps.setLong(12, product.sellerId);
+                ps.setDouble(13, currentPrice.multiply(BigDecimal.valueOf(ProductService.SELLER_PERCENTAGE)).doubleValue());
+            } else {
+                ps.setNull(11, Types.DATE);
+                ps.setNull(12, Types.BIGINT);
+                ps.setNull(13, Types.DOUBLE);
+            }
+        });
+
+        List<Object[]> priceRows = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            SyntheticProduct product = chunk.get(i);
+            for (int p = 0; p < product.prices.size(); p++) {
+                priceRows.add(new Object[] {ids.get(i), product.prices.get(p), Timestamp.valueOf(product.priceDates.get(p))});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRICE, priceRows);
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void setValues(PreparedStatement ps, int index) throws SQLException;
+    }
+
+    // Un solo batch JDBC, gli ID arrivano dalle chiavi generate
+    private List<Long> insertKeyed(String sql, int count, RowSetter setter) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setter.setValues(ps, i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                }, keyHolder);
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    private SyntheticProduct randomProduct(Random random, LocalDate today, Long ownerId, Long categoryId) {
+        SyntheticProduct product = new SyntheticProduct();
+        String material = pick(random, MATERIALS);
+        product.ownerId = ownerId;
+        product.categoryId = categoryId;
+        product.description = pick(random, TYPES) + " in " + material + " " + pick(random, COLORS);
+        product.composition = random.nextInt(3) == 0 ? "80% " + material + ", 20% poliammide" : "100% " + material;
+        product.brand = pick(random, BRANDS);
+        product.size = pick(random, SIZES);
+        product.gender = Gender.values()[random.nextInt(Gender.values().length)];
+        product.insertionDate = today.minusDays(random.nextInt(HISTORY_DAYS));
+
+        // Prezzo iniziale log-normale (mediana 25 euro), poi ribassi del 10-30% a distanza di 1-8 settimane
+        LocalDateTime date = product.insertionDate.atTime(9 + random.nextInt(10), random.nextInt(60));
+        BigDecimal price = roundPrice(Math.exp(Math.log(25) + 0.8 * random.nextGaussian()));
+        product.prices.add(price);
+        product.priceDates.add(date);
+        while (product.prices.size() < MAX_PRICES && random.nextDouble() < priceDropRate) {
+            LocalDateTime next = date.plusDays(7 + random.nextInt(50));
+            if (next.toLocalDate().isAfter(today)) {
+                break;
+            }
+            date = next;
+            price = roundPrice(price.doubleValue() * (0.7 + 0.2 * random.nextDouble()));
+            product.prices.add(price);
+            product.priceDates.add(date);
+        }
+
+        if (random.nextDouble() < soldRatio) {
+            LocalDate lastChange = date.toLocalDate();
+            product.sold = true;
+            product.saleDate = lastChange.plusDays(random.nextInt((int) ChronoUnit.DAYS.between(lastChange, today) + 1));
+        }
+        return product;
+    }
+
+    // Prezzi "da cartellino": multipli di 50 centesimi, almeno 1 euro
+    private static BigDecimal roundPrice(double value) {
+        return BigDecimal.valueOf(Math.max(2, Math.round(value * 2)))
+                .divide(BigDecimal.valueOf(2), 2, RoundingMode.UNNECESSARY);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static final class SyntheticProduct {
+        private Long ownerId;
+        private Long categoryId;
+        private Long sellerId;
+        private String description;
+        private String size;
+        private String composition;
+        private String brand;
+        private Gender gender;
+        private LocalDate insertionDate;
+        private LocalDate saleDate;
+        private boolean sold;
+        private final List<BigDecimal> prices = new ArrayList<>();
+        private final List<LocalDateTime> priceDates = new ArrayList<>();
+    }
+
+    /**
+     * Estrae posizioni da 0 a n-1 con probabilità proporzionale a 1/(posizione+1)^esponente.
+     */
+    private static final class ZipfSampler {
+        private final double[] cumulative;
+
+        private ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int rank = 0; rank < n; rank++) {
+                total += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = total;
+            }
+        }
+
+        private int sample(Random random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -3,46 +3,54 @@ package com.borealis.backend.service;
 import com.borealis.backend.dto.request.UserRequestDTO;
 import com.borealis.backend.dto.response.UserResponseDTO;
 import com.borealis.backend.Enum.Role; // <-- Modificato: Usa il tuo Enum Role
+import com.borealis.backend.mapper.UserMapper;
 import com.borealis.backend.model.User;
 import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.security.services.UserPrincipalCache;
 import jakarta.transaction.Transactional;
 import lombok.Data;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "borealis.service", histogram = true)
 public class UserService {
 
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final AuthService authService;
+    private final ProductService productService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final CatalogVersionService catalogVersionService;
 
     @Autowired
-    public UserService(UserRepository userRepository, ModelMapper modelMapper, AuthService authService) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, AuthService authService,
+                       ProductService productService, UserPrincipalCache userPrincipalCache,
+                       CatalogVersionService catalogVersionService) {
         this.userRepository = userRepository;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
         this.authService = authService;
+        this.productService = productService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.catalogVersionService = catalogVersionService;
     }
 
 
     public List<UserResponseDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(user -> modelMapper.map(user, UserResponseDTO.class))
-                .collect(Collectors.toList());
+        return userMapper.toResponseList(userRepository.findAll());
     }
 
     public UserResponseDTO getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Utente con ID " + id + " non trovato."));
-        return modelMapper.map(user, UserResponseDTO.class);
+        return userMapper.toResponse(user);
     }
 
     @Transactional
@@ -53,20 +61,24 @@ public class UserService {
         if (!existingUser.getEmail().equals(userDto.getEmail()) && userRepository.existsByEmail(userDto.getEmail())) {
             throw new IllegalArgumentException("Errore: La nuova email è già in uso!");
         }
+        userPrincipalCache.evict(existingUser.getEmail()); // La cache è indicizzata per la vecchia email
 
         existingUser.setName(userDto.getName());
         existingUser.setEmail(userDto.getEmail());
+        catalogVersionService.usersChanged(); // Nome ed email compaiono nei prodotti come proprietario e venditore
 
         User updatedUser = userRepository.save(existingUser);
-        return modelMapper.map(updatedUser, UserResponseDTO.class);
+        return userMapper.toResponse(updatedUser);
     }
 
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new IllegalArgumentException("Utente con ID " + id + " non trovato per l'eliminazione.");
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Utente con ID " + id + " non trovato per l'eliminazione."));
+        userPrincipalCache.evict(user.getEmail());
+        productService.ownerDeleting(id); // I prodotti dell'utente vengono eliminati a cascata
         userRepository.deleteById(id);
+        catalogVersionService.usersChanged();
     }
 
     @Data
@@ -82,8 +94,9 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("Utente non trovato con ID: " + id));
 
         userToUpdate.setPassword(authService.encodePassword(request.getNewPassword()));
+        userPrincipalCache.evict(userToUpdate.getEmail());
         User updatedUser = userRepository.save(userToUpdate);
-        return modelMapper.map(updatedUser, UserResponseDTO.class);
+        return userMapper.toResponse(updatedUser);
     }
 
     @Data
@@ -104,6 +117,10 @@ public class UserService {
                     case "ROLE_SUPERUSER":
                         newRoles.add(Role.ROLE_SUPERUSER.name()); // <-- Modificato: Usa Role
                         break;
+                    case "OPS":
+                    case "ROLE_OPS":
+                        newRoles.add(Role.ROLE_OPS.name());
+                        break;
                     case "USER":
                     case "ROLE_USER":
                         newRoles.add(Role.ROLE_USER.name()); // <-- Modificato: Usa Role
@@ -116,8 +133,10 @@ public class UserService {
             newRoles.add(Role.ROLE_USER.name()); // <-- Modificato: Usa Role
         }
         userToUpdate.setRoles(newRoles);
+        userPrincipalCache.evict(userToUpdate.getEmail());
+        catalogVersionService.usersChanged();
 
         User updatedUser = userRepository.save(userToUpdate);
-        return modelMapper.map(updatedUser, UserResponseDTO.class);
+        return userMapper.toResponse(updatedUser);
     }
 }
\ No newline at end of file
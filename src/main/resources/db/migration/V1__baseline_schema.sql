@@ -0,0 +1,55 @@
+-- Schema iniziale, uguale a quello che Hibernate creava con ddl-auto prima delle migrazioni (nomi dei vincoli compresi).
+-- Sui database già creati da Hibernate questa versione non viene eseguita: con spring.flyway.baseline-on-migrate
+-- Flyway registra lo schema esistente come versione 1 e applica solo le migrazioni successive.
+-- Per questo va lasciato com'è: ogni modifica dello schema va in una nuova migrazione.
+
+create table users (
+    id bigint generated by default as identity,
+    email varchar(255) not null unique,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    primary key (id)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    role_name varchar(255)
+);
+
+create table categories (
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table products (
+    current_price numeric(38,2),
+    insertion_date date not null,
+    sale_date date,
+    seller_commission_amount float(53),
+    sold boolean not null,
+    category_id bigint not null,
+    id bigint generated by default as identity,
+    owner_id bigint not null,
+    seller_id bigint,
+    brand varchar(20),
+    size varchar(50),
+    description varchar(500),
+    composition varchar(255),
+    gender varchar(255) not null check (gender in ('UOMO','DONNA','UNISEX')),
+    primary key (id)
+);
+
+create table product_prices (
+    price numeric(10,2) not null,
+    id bigint generated by default as identity,
+    modification_date timestamp(6) not null,
+    product_id bigint not null,
+    primary key (id)
+);
+
+alter table user_roles add constraint FKhfh9dx7w3ubf1co1vdev94g3f foreign key (user_id) references users (id);
+alter table products add constraint FKog2rp4qthbtt2lfyhfo32lsw9 foreign key (category_id) references categories (id);
+alter table products add constraint FKmodgy1j6kai83i3mweyp731qc foreign key (owner_id) references users (id);
+alter table products add constraint FKbgw3lyxhsml3kfqnfr45o0vbj foreign key (seller_id) references users (id);
+alter table product_prices add constraint FKo21ew0lemtpkoyly3vm1mq925 foreign key (product_id) references products (id);
@@ -0,0 +1,13 @@
+-- Versione per il locking ottimistico dei prodotti: le righe esistenti partono da 0
+alter table products add column version bigint default 0 not null;
+
+-- Read model delle statistiche per proprietario (più la riga globale), ricostruito all'avvio se vuoto
+create table product_statistics (
+    potential_revenue numeric(14,2) not null,
+    total_revenue numeric(14,2) not null,
+    owner_key bigint not null,
+    sold_items bigint not null,
+    total_items bigint not null,
+    updated_at timestamp(6),
+    primary key (owner_key)
+);
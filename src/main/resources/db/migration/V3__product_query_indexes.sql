@@ -0,0 +1,36 @@
+-- Indici per i filtri di getFilteredProducts, la paginazione a cursore e le query delle statistiche.
+-- PostgreSQL non indicizza le chiavi esterne: senza questi indici ogni filtro, findByOwnerId e lettura
+-- dello storico prezzi scorre l'intera tabella.
+-- Le colonne finali (insertion_date, id) seguono l'ordinamento di default, così la prima pagina filtrata
+-- si legge dall'indice già ordinata e si ferma dopo "size" righe.
+--
+-- Lock: "create index" blocca le scritture sulla tabella (lock SHARE) per tutta la costruzione dell'indice.
+-- Su un database di produzione già popolato, prima del rilascio creare gli indici a mano fuori dalle ore di punta
+-- con "create index concurrently if not exists ..." (non eseguibile dentro la transazione di Flyway):
+-- questa migrazione trova allora gli indici già presenti e non blocca nulla. Una costruzione concorrente interrotta
+-- lascia un indice INVALID con lo stesso nome, che va eliminato e ricreato prima del rilascio.
+
+-- Filtro per proprietario, da solo o con stato e/o categoria; statistiche e vendite mensili di un proprietario
+create index if not exists idx_products_owner_sold_insertion on products (owner_id, sold, insertion_date, id);
+
+-- Filtro per categoria, da solo o con stato; statistiche per categoria di un proprietario
+create index if not exists idx_products_category_sold_insertion on products (category_id, sold, insertion_date, id);
+
+-- Filtro per solo stato (disponibili / venduti) con l'ordinamento di default
+create index if not exists idx_products_sold_insertion on products (sold, insertion_date, id);
+
+-- Catalogo senza filtri ordinato per data di inserimento o per prezzo (predicato "seek" di ProductSpecifications)
+create index if not exists idx_products_insertion on products (insertion_date, id);
+create index if not exists idx_products_price on products (current_price, id);
+
+-- Prodotti venduti da un utente (User.soldProducts, eliminazione degli utenti)
+create index if not exists idx_products_seller on products (seller_id);
+
+-- Vendite mensili globali: solo i prodotti venduti, raggruppati per data di vendita
+create index if not exists idx_products_sold_sale_date on products (sold, sale_date);
+
+-- Storico prezzi di un prodotto, già nell'ordine di lettura (Product.priceHistory)
+create index if not exists idx_product_prices_product_date on product_prices (product_id, modification_date);
+
+-- Ruoli degli utenti caricati in batch con "user_id in (...)": la collection table non ha chiave primaria
+create index if not exists idx_user_roles_user on user_roles (user_id);
@@ -0,0 +1,4 @@
+-- Versioni del catalogo usate per gli ETag (vedi CatalogVersionService): condivise da tutte le istanze.
+-- Le righe dei singoli proprietari ("owner:<id>") nascono alla loro prima scrittura
+create table catalog_versions (version bigint not null, name varchar(40) not null, primary key (name));
+insert into catalog_versions (name, version) values ('products', 0), ('owners', 0), ('categories', 0), ('users', 0);
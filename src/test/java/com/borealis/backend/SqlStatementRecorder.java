@@ -0,0 +1,151 @@
+package com.borealis.backend;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registra gli statement JDBC eseguiti sul DataSource dell'applicazione tra start() e stop(), compresi quelli di
+ * JdbcTemplate e delle risposte asincrone (che girano su altri thread), non solo quelli di Hibernate.
+ * Ogni esecuzione conta come uno statement, con i parametri impostati sul PreparedStatement;
+ * un batch JDBC conta come uno solo, perché è un solo round trip, e viene registrato senza parametri.
+ * Si attiva importando {@link Config} nel test.
+ */
+public final class SqlStatementRecorder {
+
+    private static final List<RecordedStatement> statements = new ArrayList<>();
+    private static volatile boolean recording;
+
+    private SqlStatementRecorder() {
+    }
+
+    /**
+     * Uno statement eseguito, con i parametri in ordine di posizione (null per setNull).
+     */
+    public record RecordedStatement(String sql, List<Object> parameters) {
+    }
+
+    public static synchronized void start() {
+        statements.clear();
+        recording = true;
+    }
+
+    public static synchronized List<RecordedStatement> stop() {
+        recording = false;
+        return List.copyOf(statements);
+    }
+
+    private static void record(String sql, Map<Integer, Object> parameters) {
+        if (recording) {
+            synchronized (SqlStatementRecorder.class) {
+                statements.add(new RecordedStatement(sql.replaceAll("\\s+", " ").trim(), new ArrayList<>(parameters.values())));
+            }
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+
+        @Bean
+        static BeanPostProcessor sqlStatementRecordingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // DelegatingDataSource inoltra unwrap/isWrapperFor, così le metriche del pool vedono ancora HikariDataSource
+    private static final class RecordingDataSource extends DelegatingDataSource {
+
+        private RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return connection(super.getConnection(username, password));
+        }
+    }
+
+    private static Connection connection(Connection target) {
+        return proxy(Connection.class, target, (method, args, result) -> {
+            if (result instanceof CallableStatement statement) {
+                return preparedStatement(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return preparedStatement(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, (statementMethod, statementArgs, statementResult) -> {
+                    if (statementMethod.getName().startsWith("execute") && statementArgs != null
+                            && statementArgs.length > 0 && statementArgs[0] instanceof String sql) {
+                        record(sql, Map.of());
+                    }
+                    return statementResult;
+                });
+            }
+            return result;
+        });
+    }
+
+    private static <T extends PreparedStatement> T preparedStatement(Class<T> type, T target, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(type, target, (method, args, result) -> {
+            String name = method.getName();
+            switch (name) {
+                case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate" -> record(sql, parameters);
+                case "executeBatch", "executeLargeBatch" -> record(sql + " [batch]", Map.of());
+                case "clearParameters" -> parameters.clear();
+                default -> {
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    @FunctionalInterface
+    private interface AfterInvocation {
+        Object apply(Method method, Object[] args, Object result) throws Throwable;
+    }
+
+    // Invoca il metodo sull'oggetto reale, poi lascia decidere se registrare o avvolgere il risultato
+    private static <T> T proxy(Class<T> type, T target, AfterInvocation after) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return after.apply(method, args, result);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+}
@@ -0,0 +1,135 @@
+package com.borealis.backend.benchmark;
+
+import com.borealis.backend.security.jwt.AuthTokenFilter;
+import com.borealis.backend.security.jwt.JwtUtils;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo per richiesta dell'autenticazione JWT.
+ * - legacyVerification: il vecchio JwtUtils (chiave decodificata e parser costruito a ogni chiamata, token letto due volte);
+ * - parseOnce / parseOnceCached: un solo parsing con chiave e parser costruiti all'avvio, senza e con la cache dei token verificati;
+ * - filter / filterCached: AuthTokenFilter completo, con il principal costruito dai claim (authPrincipalSource=token);
+ * - generateToken: emissione del token al login.
+ *
+ * Esecuzione: mvn -Pbenchmark verify -DskipTests -Djmh.include=AuthTokenFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    // Stessa chiave di test di src/test/resources/application.properties
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtMTIzNA";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtUtils uncachedJwtUtils;
+    private JwtUtils cachedJwtUtils;
+    private AuthTokenFilter uncachedFilter;
+    private AuthTokenFilter cachedFilter;
+    private Authentication authentication;
+    private String token;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        uncachedJwtUtils = jwtUtils(0);
+        cachedJwtUtils = jwtUtils(10_000);
+        uncachedFilter = filter(uncachedJwtUtils);
+        cachedFilter = filter(cachedJwtUtils);
+
+        UserDetailsImpl principal = new UserDetailsImpl(42L, "Utente benchmark", "benchmark@borealis.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        token = uncachedJwtUtils.generateJwtToken(authentication);
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public String legacyVerification() {
+        // validateJwtToken + getUserNameFromJwtToken prima della modifica
+        Jwts.parser().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(SECRET))).build().parse(token);
+        return Jwts.parser().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(SECRET))).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public Claims parseOnce() {
+        return uncachedJwtUtils.parseJwtToken(token);
+    }
+
+    @Benchmark
+    public Claims parseOnceCached() {
+        return cachedJwtUtils.parseJwtToken(token);
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        return runFilter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Authentication filterCached() throws Exception {
+        return runFilter(cachedFilter);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncachedJwtUtils.generateJwtToken(authentication);
+    }
+
+    private Authentication runFilter(AuthTokenFilter filter) throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        request.clearAttributes(); // OncePerRequestFilter marca la richiesta come già filtrata
+        return authentication;
+    }
+
+    private static JwtUtils jwtUtils(long verifiedCacheMaxSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private static AuthTokenFilter filter(JwtUtils jwtUtils) {
+        AuthTokenFilter filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "principalSource", "token");
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        return filter;
+    }
+}
@@ -0,0 +1,136 @@
+package com.borealis.backend.benchmark;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.response.ProductResponseDTO;
+import com.borealis.backend.mapper.CategoryMapperImpl;
+import com.borealis.backend.mapper.ProductMapper;
+import com.borealis.backend.mapper.ProductMapperImpl;
+import com.borealis.backend.mapper.UserMapperImpl;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.Product;
+import com.borealis.backend.model.User;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confronta il mapping di liste di prodotti verso ProductResponseDTO tra la vecchia configurazione
+ * di ModelMapper (riflessiva, STRICT) e i mapper MapStruct generati a compile-time.
+ *
+ * Esecuzione: mvn -Pbenchmark verify -DskipTests -Djmh.include=ProductMappingBenchmark
+ * (aggiungere -prof gc a jmh.include per confrontare anche le allocazioni).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({"10000"})
+    private int productCount;
+
+    private List<Product> products;
+    private ProductRequestDTO request;
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+
+    @Setup
+    public void setUp() {
+        modelMapper = legacyModelMapper();
+        productMapper = new ProductMapperImpl(new UserMapperImpl(), new CategoryMapperImpl());
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User user = new User("Utente " + i, "utente" + i + "@borealis.com", "hash");
+            user.setId((long) i + 1);
+            user.addRole("ROLE_USER");
+            users.add(user);
+        }
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            categories.add(new Category((long) i + 1, "Categoria " + i, new ArrayList<>()));
+        }
+
+        products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setOwner(users.get(i % users.size()));
+            product.setCategory(categories.get(i % categories.size()));
+            product.setDescription("Maglione in lana " + i);
+            product.setSize("M");
+            product.setBrand("Borealis");
+            product.setComposition("100% lana");
+            product.setGender(Gender.values()[i % Gender.values().length]);
+            product.setCurrentPrice(BigDecimal.valueOf(500 + i % 5000, 2));
+            product.setInsertionDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+            if (i % 3 == 0) {
+                product.markAsSold(users.get((i + 7) % users.size()));
+                product.setSellerCommissionAmount(product.getCurrentPrice().doubleValue() * 0.10);
+            }
+            products.add(product);
+        }
+
+        request = new ProductRequestDTO();
+        request.setDescription("Maglione in lana");
+        request.setCurrentPrice(BigDecimal.valueOf(1990, 2));
+        request.setOwnerId(1L);
+        request.setCategoryId(1L);
+        request.setSize("M");
+        request.setBrand("Borealis");
+        request.setComposition("100% lana");
+        request.setGender(Gender.UNISEX);
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> modelMapperList() {
+        List<ProductResponseDTO> result = new ArrayList<>();
+        for (Product product : products) {
+            result.add(modelMapper.map(product, ProductResponseDTO.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> mapStructList() {
+        return productMapper.toResponseList(products);
+    }
+
+    @Benchmark
+    public Product modelMapperRequestToEntity() {
+        return modelMapper.map(request, Product.class);
+    }
+
+    @Benchmark
+    public Product mapStructRequestToEntity() {
+        return productMapper.toEntity(request);
+    }
+
+    // Stessa configurazione del bean ModelMapper usato dai service prima dei mapper generati
+    private static ModelMapper legacyModelMapper() {
+        ModelMapper mapper = new ModelMapper();
+        mapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+        mapper.createTypeMap(ProductRequestDTO.class, Product.class)
+                .addMappings(m -> m.skip(Product::setId));
+        return mapper;
+    }
+}
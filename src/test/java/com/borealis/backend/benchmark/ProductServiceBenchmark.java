@@ -0,0 +1,152 @@
+package com.borealis.backend.benchmark;
+
+import com.borealis.backend.BackendApplication;
+import com.borealis.backend.dto.response.CursorPageResponseDTO;
+import com.borealis.backend.dto.response.NormalizedProductListResponseDTO;
+import com.borealis.backend.dto.response.ProductResponseDTO;
+import com.borealis.backend.dto.response.ProductStatisticsResponseDTO;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.repository.projection.ProductStatisticsView;
+import com.borealis.backend.security.jwt.AuthTokenFilter;
+import com.borealis.backend.security.jwt.JwtUtils;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import com.borealis.backend.service.ProductService;
+import com.borealis.backend.service.SyntheticDataGenerator;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Percorsi principali dei prodotti misurati sul codice reale (contesto Spring completo) e su un database H2 in memoria
+ * popolato all'avvio da SyntheticDataGenerator con productCount prodotti, ownerCount proprietari e 10 categorie.
+ * - filterByOwner / filterByDescription: getFilteredProducts (Specification, query con fetch join e mapping),
+ *   per il proprietario con più prodotti e per una parola presente in circa un prodotto su sette;
+ * - firstPage: prima pagina della paginazione a cursore;
+ * - normalizedByOwner: lista normalizzata (?view=normalized) dello stesso proprietario di filterByOwner;
+ * - statistics: statistiche globali dal read model;
+ * - statisticsBreakdown: statistiche con dettaglio per categoria e per mese (aggregazioni sul database);
+ * - aggregateFromProducts: l'aggregazione completa su products che il read model evita;
+ * - authenticate: AuthTokenFilter con principal letto dal database tramite cache (configurazione di default).
+ *
+ * Esecuzione: mvn -Pbenchmark verify -DskipTests -Djmh.include=ProductServiceBenchmark [-Djmh.args="-p productCount=50000"]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int CATEGORY_COUNT = 10;
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"10000"})
+    private int productCount;
+
+    @Param({"50"})
+    private int ownerCount;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private AuthTokenFilter authTokenFilter;
+    private MockHttpServletRequest request;
+    private Long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                // Argomenti da riga di comando: a differenza di properties() prevalgono su application.properties
+                .run("--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--borealis.app.searchRebuildOnStartup=false");
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        authTokenFilter = context.getBean(AuthTokenFilter.class);
+
+        SyntheticDataGenerator.Dataset dataset = context.getBean(SyntheticDataGenerator.class)
+                .generate(ownerCount, CATEGORY_COUNT, productCount, "benchmark");
+        ownerId = dataset.getUserIds().get(0);
+
+        UserDetailsImpl principal = UserDetailsImpl.build(context.getBean(UserRepository.class).findById(ownerId).orElseThrow());
+        String token = context.getBean(JwtUtils.class)
+                .generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> filterByOwner() {
+        return productService.getFilteredProducts(null, ownerId, null, null);
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> filterByDescription() {
+        return productService.getFilteredProducts("lana", null, null, "AVAILABLE");
+    }
+
+    @Benchmark
+    public CursorPageResponseDTO<ProductResponseDTO> firstPage() {
+        return productService.getProductsPage(null, null, null, null, null, 50, null);
+    }
+
+    @Benchmark
+    public NormalizedProductListResponseDTO normalizedByOwner() {
+        return productService.getNormalizedProducts(null, ownerId, null, null);
+    }
+
+    @Benchmark
+    public ProductStatisticsResponseDTO statistics() {
+        return productService.getProductStatistics(null, false, false);
+    }
+
+    @Benchmark
+    public ProductStatisticsResponseDTO statisticsBreakdown() {
+        return productService.getProductStatistics(null, true, true);
+    }
+
+    @Benchmark
+    public ProductStatisticsView aggregateFromProducts() {
+        return productRepository.aggregateStatistics();
+    }
+
+    @Benchmark
+    public Authentication authenticate() throws Exception {
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        request.clearAttributes(); // OncePerRequestFilter marca la richiesta come già filtrata
+        return authentication;
+    }
+}
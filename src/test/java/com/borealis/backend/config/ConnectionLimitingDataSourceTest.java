@@ -0,0 +1,109 @@
+package com.borealis.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Permessi del limite sulle connessioni: rilascio alla chiusura e sugli errori, rifiuto oltre maxWaiters e timeout.
+ */
+class ConnectionLimitingDataSourceTest {
+
+    private final StubDataSource target = new StubDataSource();
+
+    @Test
+    void permitIsReleasedOnCloseOnlyOnce() throws SQLException {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10, Duration.ofMillis(50));
+        Connection first = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close(); // Una seconda chiusura non restituisce un altro permesso
+        Connection second = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        second.close();
+    }
+
+    @Test
+    void permitIsReleasedWhenTargetFails() throws SQLException {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10, Duration.ofMillis(50));
+        target.failure = new SQLException("Database non raggiungibile");
+        assertSame(target.failure, assertThrows(SQLException.class, dataSource::getConnection));
+        assertSame(target.failure, assertThrows(SQLException.class, dataSource::getConnection));
+
+        target.failure = null;
+        dataSource.getConnection().close();
+    }
+
+    @Test
+    void waitersBeyondLimitAreRejectedImmediately() throws Exception {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 1, Duration.ofSeconds(10));
+        Connection held = dataSource.getConnection();
+        Thread[] waiterThread = new Thread[1];
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            waiterThread[0] = Thread.currentThread();
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (waiterThread[0] == null || waiterThread[0].getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        SQLTransientConnectionException rejected = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertTrue(rejected.getMessage().startsWith("Troppe richieste"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "Il rifiuto non deve attendere il timeout");
+
+        held.close();
+        Connection acquired = waiter.get(5, TimeUnit.SECONDS);
+        assertNotNull(acquired);
+        acquired.close();
+    }
+
+    @Test
+    void acquireFailsAfterTimeout() throws SQLException {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10, Duration.ofMillis(200));
+        Connection held = dataSource.getConnection();
+
+        long start = System.nanoTime();
+        SQLTransientConnectionException timedOut = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(timedOut.getMessage().startsWith("Nessuna connessione"));
+        held.close();
+    }
+
+    // DataSource che restituisce connessioni fittizie, o fallisce se è impostato un errore
+    private static class StubDataSource extends AbstractDataSource {
+
+        private volatile SQLException failure;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failure != null) {
+                throw failure;
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
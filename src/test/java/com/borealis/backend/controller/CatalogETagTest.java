@@ -0,0 +1,190 @@
+package com.borealis.backend.controller;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.request.CategoryRequestDTO;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.security.jwt.JwtUtils;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import com.borealis.backend.service.CategoryService;
+import com.borealis.backend.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET condizionali sul catalogo: con un ETag ancora valido la risposta è 304 e viene eseguita solo la lettura
+ * delle versioni, dopo una scrittura confermata (anche da un'altra istanza o con SQL manuale) l'ETag cambia.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private User otherOwner;
+    private Category category;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        owner = saveUser("etag-owner@borealis.com");
+        otherOwner = saveUser("etag-other@borealis.com");
+        category = categoryRepository.save(new Category(null, "Categoria ETag", new ArrayList<>()));
+        UserDetailsImpl principal = UserDetailsImpl.build(owner);
+        token = "Bearer " + jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.findAll().stream()
+                .filter(existing -> existing.getName().startsWith("Categoria ETag"))
+                .forEach(categoryRepository::delete);
+        userRepository.delete(owner);
+        userRepository.delete(otherOwner);
+    }
+
+    @Test
+    void productListIsNotReloadedWhileUnchanged() throws Exception {
+        createProduct(owner);
+        String eTag = getETag("/api/products");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/products").header(HttpHeaders.AUTHORIZATION, token).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        assertEquals(1, statistics.getPrepareStatementCount()); // Solo la lettura di catalog_versions
+
+        createProduct(owner);
+        mockMvc.perform(get("/api/products").header(HttpHeaders.AUTHORIZATION, token).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ownerETagIgnoresOtherOwners() throws Exception {
+        String ownerUrl = "/api/products/filter?ownerId=" + owner.getId();
+        String ownerETag = getETag(ownerUrl);
+        String allETag = getETag("/api/products/filter");
+
+        createProduct(otherOwner);
+        assertEquals(ownerETag, getETag(ownerUrl));
+        assertNotEquals(allETag, getETag("/api/products/filter"));
+
+        createProduct(owner);
+        assertNotEquals(ownerETag, getETag(ownerUrl));
+    }
+
+    @Test
+    void versionsAreSharedThroughDatabase() throws Exception {
+        String eTag = getETag("/api/products");
+
+        // Una scrittura annullata non cambia l'ETag
+        transactionTemplate.executeWithoutResult(status -> {
+            createProduct(owner);
+            status.setRollbackOnly();
+        });
+        assertEquals(eTag, getETag("/api/products"));
+
+        // Una scrittura confermata da un'altra istanza (o con SQL manuale) è visibile a questa
+        jdbcTemplate.update("update catalog_versions set version = version + 1");
+        assertNotEquals(eTag, getETag("/api/products"));
+    }
+
+    @Test
+    void categoryChangesInvalidateCategoriesAndProducts() throws Exception {
+        String categoriesETag = getETag("/api/categories");
+        String productsETag = getETag("/api/products");
+
+        CategoryRequestDTO rename = new CategoryRequestDTO();
+        rename.setName("Categoria ETag rinominata");
+        categoryService.updateCategory(category.getId(), rename);
+
+        assertNotEquals(categoriesETag, getETag("/api/categories"));
+        assertNotEquals(productsETag, getETag("/api/products"));
+    }
+
+    private String getETag(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+
+    private User saveUser(String email) {
+        User user = new User("Utente ETag", email, "password");
+        user.addRole("ROLE_USER");
+        return userRepository.save(user);
+    }
+
+    private void createProduct(User productOwner) {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setDescription("Prodotto ETag");
+        dto.setGender(Gender.UNISEX);
+        dto.setCurrentPrice(new BigDecimal("10.00"));
+        dto.setOwnerId(productOwner.getId());
+        dto.setCategoryId(category.getId());
+        productService.createProduct(dto);
+    }
+}
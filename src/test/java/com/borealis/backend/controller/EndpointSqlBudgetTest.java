@@ -0,0 +1,291 @@
+package com.borealis.backend.controller;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.SqlStatementRecorder;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.request.ProductUpdateRequestDTO;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.search.ProductSearchIndexUpdater;
+import com.borealis.backend.security.jwt.JwtUtils;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import com.borealis.backend.service.CategoryLookupService;
+import com.borealis.backend.service.ProductService;
+import com.borealis.backend.service.ProductStatisticsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Budget di statement SQL per ogni endpoint dei controller: la build fallisce se una richiesta ne esegue di più,
+ * riportando gli statement eseguiti (tipicamente un N+1 reintrodotto su owner, seller, category o ruoli).
+ * I dati contengono più prodotti, proprietari e categorie di qualsiasi budget, così un caricamento per riga lo supera sempre.
+ * Le richieste vengono misurate con il principal del token già in cache e la cache delle categorie vuota.
+ * I budget includono la lettura delle versioni del catalogo (ETag) nelle GET e il loro incremento nelle scritture.
+ * Dopo una modifica che riduce le query, abbassare il budget corrispondente.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlStatementRecorder.Config.class)
+class EndpointSqlBudgetTest {
+
+    private static final String PASSWORD = "Budget!123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStatisticsService productStatisticsService;
+
+    @Autowired
+    private ProductSearchIndexUpdater productSearchIndexUpdater;
+
+    @Autowired
+    private CategoryLookupService categoryLookupService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private final List<String> violations = new ArrayList<>();
+    private final List<User> owners = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private User admin;
+    private String ownerToken;
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        admin = saveUser("budget-admin@borealis.com", "ROLE_USER", "ROLE_SUPERUSER");
+        for (int i = 0; i < 3; i++) {
+            owners.add(saveUser("budget-owner-" + i + "@borealis.com", "ROLE_USER"));
+            categories.add(categoryRepository.save(new Category(null, "Budget " + i, new ArrayList<>())));
+        }
+        // 12 prodotti con due prezzi ciascuno, un terzo venduti da proprietari diversi
+        for (int i = 0; i < 12; i++) {
+            Long id = createProduct("Maglione budget " + i, owners.get(i % 3), categories.get(i / 4));
+            ProductUpdateRequestDTO priceDrop = new ProductUpdateRequestDTO();
+            priceDrop.setCurrentPrice(BigDecimal.valueOf(15));
+            productService.updateProduct(id, priceDrop);
+            if (i % 3 == 1) {
+                productService.markProductAsSold(id, owners.get((i + 1) % 3).getId());
+            }
+            productIds.add(id);
+        }
+        ownerToken = token(owners.get(0));
+        adminToken = token(admin);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.findAll().stream()
+                .filter(category -> category.getName().startsWith("Budget"))
+                .forEach(categoryRepository::delete);
+        userRepository.findAll().stream()
+                .filter(user -> user.getEmail().startsWith("budget-"))
+                .forEach(userRepository::delete);
+        productStatisticsService.rebuild();
+        productSearchIndexUpdater.rebuild();
+    }
+
+    @Test
+    void productEndpoints() throws Exception {
+        Long productId = productIds.get(0);
+        Long ownerId = owners.get(0).getId();
+        Long sellerId = owners.get(1).getId();
+
+        check(3, "GET /api/products", get("/api/products"), ownerToken);
+        check(3, "GET /api/products?size", get("/api/products?size=5"), ownerToken);
+        check(7, "GET /api/products?view=normalized", get("/api/products?view=normalized"), ownerToken);
+        check(6, "GET /api/products?fields", get("/api/products?fields=id,description,owner,category&size=5"), ownerToken);
+        check(3, "GET /api/products/filter", get("/api/products/filter?ownerId=" + ownerId + "&status=AVAILABLE"), ownerToken);
+        check(3, "GET /api/products/filter?size", get("/api/products/filter?description=maglione&size=5"), ownerToken);
+        check(4, "GET /api/products/{id}", get("/api/products/" + productId), ownerToken);
+        check(2, "GET /api/products/{id}?fields", get("/api/products/" + productId + "?fields=description,seller"), ownerToken);
+        check(3, "GET /api/products/{id}/price-history", get("/api/products/" + productId + "/price-history"), ownerToken);
+        check(3, "GET /api/products/search", get("/api/products/search?q=maglione"), ownerToken);
+        check(1, "GET /api/products/export", get("/api/products/export?format=csv"), ownerToken);
+        check(2, "GET /api/products/statistics", get("/api/products/statistics"), ownerToken);
+        check(4, "GET /api/products/statistics?breakdown",
+                get("/api/products/statistics?userId=" + ownerId + "&breakdown=category,month"), ownerToken);
+
+        check(9, "POST /api/products", json(post("/api/products"), productRequest("Giacca budget", ownerId)), ownerToken);
+        check(13, "POST /api/products/batch", json(post("/api/products/batch"), Map.of("items", List.of(
+                productRequest("Camicia budget", ownerId), productRequest("Gonna budget", sellerId)))), ownerToken);
+        check(10, "PUT /api/products/{id}", json(put("/api/products/" + productId),
+                Map.of("currentPrice", 12, "categoryId", categories.get(2).getId())), ownerToken);
+        check(10, "PUT /api/products/{id}/assign-owner",
+                put("/api/products/" + productIds.get(3) + "/assign-owner?newOwnerId=" + sellerId), ownerToken);
+        check(12, "PUT /api/products/{id}/mark-sold",
+                json(put("/api/products/" + productIds.get(5) + "/mark-sold"), Map.of("sellerId", sellerId)), ownerToken);
+        check(11, "POST /api/products/checkout", json(post("/api/products/checkout"),
+                Map.of("sellerId", sellerId, "productIds", List.of(productIds.get(6), productIds.get(8), productIds.get(9)))), ownerToken);
+        check(9, "DELETE /api/products/{id}", delete("/api/products/" + productIds.get(11)), ownerToken);
+        check(11, "POST /api/products/bulk-delete", json(post("/api/products/bulk-delete"),
+                Map.of("productIds", List.of(productIds.get(2), productIds.get(4), productIds.get(7)))), adminToken);
+        check(8, "POST /api/products/statistics/rebuild", post("/api/products/statistics/rebuild"), adminToken);
+
+        assertWithinBudgets();
+    }
+
+    @Test
+    void userEndpoints() throws Exception {
+        Long ownerId = owners.get(0).getId();
+        User disposable = saveUser("budget-disposable@borealis.com", "ROLE_USER");
+
+        check(2, "GET /api/users", get("/api/users"), ownerToken);
+        check(1, "GET /api/users/{id}", get("/api/users/" + ownerId), ownerToken);
+        check(3, "PUT /api/users/{id}", json(put("/api/users/" + ownerId),
+                Map.of("name", "Proprietario budget", "email", "budget-owner-0@borealis.com")), adminToken);
+        check(2, "PUT /api/users/{id}/password", json(put("/api/users/" + ownerId + "/password"),
+                Map.of("newPassword", "Nuova!123")), adminToken);
+        check(5, "PUT /api/users/{id}/roles", json(put("/api/users/" + owners.get(1).getId() + "/roles"),
+                Map.of("roles", Set.of("USER", "OPS"))), adminToken);
+        check(12, "DELETE /api/users/{id}", delete("/api/users/" + disposable.getId()), adminToken);
+
+        assertWithinBudgets();
+    }
+
+    @Test
+    void categoryEndpoints() throws Exception {
+        Long categoryId = categories.get(0).getId();
+        Category empty = categoryRepository.save(new Category(null, "Budget vuota", new ArrayList<>()));
+
+        check(2, "GET /api/categories", get("/api/categories"), ownerToken);
+        check(2, "GET /api/categories/{id}", get("/api/categories/" + categoryId), ownerToken);
+        check(3, "POST /api/categories", json(post("/api/categories"), Map.of("name", "Budget nuova")), ownerToken);
+        check(4, "PUT /api/categories/{id}", json(put("/api/categories/" + categoryId), Map.of("name", "Budget rinominata")), ownerToken);
+        check(9, "DELETE /api/categories/{id}", delete("/api/categories/" + empty.getId()), ownerToken);
+
+        assertWithinBudgets();
+    }
+
+    @Test
+    void authEndpoints() throws Exception {
+        check(2, "POST /api/auth/login", json(post("/api/auth/login"),
+                Map.of("email", "budget-owner-0@borealis.com", "password", PASSWORD)), null);
+        check(3, "POST /api/auth/register", json(post("/api/auth/register"),
+                Map.of("name", "Budget registrato", "email", "budget-register@borealis.com", "password", PASSWORD)), null);
+        check(3, "POST /api/auth/create-user", json(post("/api/auth/create-user"), Map.of("name", "Budget creato",
+                "email", "budget-created@borealis.com", "password", PASSWORD, "roles", Set.of("USER"))), adminToken);
+
+        assertWithinBudgets();
+    }
+
+    // Esegue la richiesta (attendendo la fine delle risposte in streaming) e registra una violazione se supera il budget
+    private void check(int budget, String endpoint, MockHttpServletRequestBuilder request, String token) throws Exception {
+        if (token != null) {
+            // Il principal viene messo in cache da una richiesta precedente, come per un client già autenticato
+            mockMvc.perform(get("/actuator/health").header(HttpHeaders.AUTHORIZATION, token));
+            request.header(HttpHeaders.AUTHORIZATION, token);
+        }
+        categoryLookupService.evictAll();
+
+        SqlStatementRecorder.start();
+        List<SqlStatementRecorder.RecordedStatement> statements;
+        int status;
+        try {
+            MvcResult result = mockMvc.perform(request).andReturn();
+            if (result.getRequest().isAsyncStarted()) {
+                result.getAsyncResult(); // Lo StreamingResponseBody ha finito di scrivere la risposta
+            }
+            status = result.getResponse().getStatus();
+        } finally {
+            statements = SqlStatementRecorder.stop();
+        }
+
+        assertTrue(status >= 200 && status < 300, endpoint + " ha risposto " + status);
+        if (statements.size() > budget) {
+            StringBuilder report = new StringBuilder(endpoint + ": " + statements.size() + " statement (budget " + budget + ")");
+            for (int i = 0; i < statements.size(); i++) {
+                report.append("\n    ").append(i + 1).append(". ").append(statements.get(i).sql());
+            }
+            violations.add(report.toString());
+        }
+    }
+
+    private void assertWithinBudgets() {
+        if (!violations.isEmpty()) {
+            fail("Endpoint oltre il budget di statement SQL:\n  " + String.join("\n  ", violations));
+        }
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+
+    private Map<String, Object> productRequest(String description, Long ownerId) {
+        return Map.of("description", description, "currentPrice", 20, "gender", "UNISEX",
+                "ownerId", ownerId, "categoryId", categories.get(1).getId());
+    }
+
+    private Long createProduct(String description, User owner, Category category) {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setDescription(description);
+        dto.setGender(Gender.UNISEX);
+        dto.setCurrentPrice(BigDecimal.valueOf(20));
+        dto.setOwnerId(owner.getId());
+        dto.setCategoryId(category.getId());
+        return productService.createProduct(dto).getId();
+    }
+
+    private User saveUser(String email, String... roles) {
+        User user = new User("Utente budget", email, passwordEncoder.encode(PASSWORD));
+        for (String role : roles) {
+            user.addRole(role);
+        }
+        return userRepository.save(user);
+    }
+
+    private String token(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return "Bearer " + jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,182 @@
+package com.borealis.backend.loadtest;
+
+import com.borealis.backend.BackendApplication;
+import com.borealis.backend.service.SyntheticDataGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scenari di carico sul catalogo, eseguiti in sequenza via HTTP:
+ * - login: POST /api/auth/login a rotazione sugli utenti del dataset sintetico (hash BCrypt a ogni richiesta; le richieste
+ *   rifiutate con 503 dal pool degli hash saturo, configurato come in produzione, risultano tra gli errori);
+ * - sfoglia: prima pagina di GET /api/products con i quattro ordinamenti;
+ * - filtra: GET /api/products/filter per proprietario e stato, alternato alla ricerca per descrizione;
+ * - vendita: PUT /api/products/{id}/mark-sold su prodotti disponibili sempre diversi;
+ * - statistiche: GET /api/products/statistics globali con dettaglio per categoria e mese, alternate a quelle di un proprietario.
+ * Per ogni scenario riporta throughput e latenze (p50/p90/p99/max) e scrive le stesse righe in target/load-test-results.csv.
+ * Le letture inviano sempre la richiesta completa (nessun If-None-Match), quindi misurano le query e non gli ETag.
+ *
+ * Di default avvia l'applicazione su una porta casuale con un database H2 popolato da SyntheticDataGenerator.
+ * Con -Dloadtest.baseUrl usa invece un'istanza già avviata, che deve avere il dataset sintetico
+ * (borealis.app.syntheticProducts > 0) e limiti di login adeguati al numero di richieste.
+ *
+ * Esecuzione: mvn -Pload-test test -Dtest=CatalogLoadTest [-Dloadtest.requests=2000] [-Dloadtest.concurrency=50]
+ *             [-Dloadtest.products=50000] [-Dloadtest.users=500] [-Dloadtest.baseUrl=http://localhost:8080]
+ */
+@Tag("load")
+class CatalogLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 50);
+    private static final int PRODUCTS = Integer.getInteger("loadtest.products", 20000);
+    private static final int USERS = Integer.getInteger("loadtest.users", 200);
+    private static final int CATEGORIES = Integer.getInteger("loadtest.categories", 20);
+    private static final String PASSWORD = System.getProperty("loadtest.password", "Sintetico!1");
+    private static final String BASE_URL = System.getProperty("loadtest.baseUrl");
+    private static final String[] SORTS = {"insertion_date_desc", "insertion_date_asc", "price_asc", "price_desc"};
+
+    private final LoadRunner loadRunner = new LoadRunner(CONCURRENCY);
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void catalogScenarios() throws Exception {
+        if (BASE_URL != null) {
+            report(runScenarios(BASE_URL));
+            return;
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                // Argomenti da riga di comando: a differenza di properties() prevalgono su application.properties
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:catalog-load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--borealis.app.syntheticProducts=" + PRODUCTS,
+                        "--borealis.app.syntheticUsers=" + USERS,
+                        "--borealis.app.syntheticCategories=" + CATEGORIES,
+                        "--borealis.app.syntheticPassword=" + PASSWORD,
+                        // Tutti i login arrivano dallo stesso IP: i limiti servono a misurare il costo, non la protezione
+                        "--borealis.app.loginRateLimitPerIp=" + Integer.MAX_VALUE,
+                        "--borealis.app.loginRateLimitPerAccount=" + Integer.MAX_VALUE,
+                        "--borealis.app.passwordHashQueueCapacity=" + CONCURRENCY)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            report(runScenarios("http://localhost:" + port));
+        }
+    }
+
+    private Map<String, LoadRunner.Result> runScenarios(String baseUrl) throws Exception {
+        Map<String, LoadRunner.Result> results = new LinkedHashMap<>();
+        int users = Math.min(USERS, REQUESTS);
+
+        // I login riusciti forniscono token e ID degli utenti usati dagli scenari successivi
+        AtomicReferenceArray<JsonNode> logins = new AtomicReferenceArray<>(REQUESTS);
+        results.put("login", loadRunner.run(REQUESTS, index -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + SyntheticDataGenerator.email(index % users)
+                        + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build(), (body, index) -> logins.set(index, readJson(body))));
+        List<String> tokens = new ArrayList<>();
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            if (logins.get(i) != null) {
+                tokens.add(logins.get(i).get("token").asText());
+                userIds.add(logins.get(i).get("id").asLong());
+            }
+        }
+        assertTrue(!tokens.isEmpty(), "Nessun login riuscito: il dataset sintetico è presente?");
+
+        results.put("sfoglia", loadRunner.run(REQUESTS, index -> get(baseUrl + "/api/products?size=50&sort="
+                + SORTS[index % SORTS.length], tokens.get(index % tokens.size()))));
+
+        // Gli utenti sono in ordine di login, quindi di posizione nella distribuzione: proprietari grandi e piccoli
+        results.put("filtra", loadRunner.run(REQUESTS, index -> get(index % 2 == 0
+                        ? baseUrl + "/api/products/filter?size=50&status=AVAILABLE&ownerId=" + userIds.get(index % userIds.size())
+                        : baseUrl + "/api/products/filter?size=50&description=" + URLEncoder.encode("in lana", StandardCharsets.UTF_8),
+                tokens.get(index % tokens.size()))));
+
+        List<Long> available = availableProductIds(baseUrl, tokens.get(0), REQUESTS);
+        results.put("vendita", loadRunner.run(available.size(), index -> HttpRequest.newBuilder(
+                        URI.create(baseUrl + "/api/products/" + available.get(index) + "/mark-sold"))
+                .header("Authorization", "Bearer " + tokens.get(index % tokens.size()))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"sellerId\":" + userIds.get(index % userIds.size()) + "}"))
+                .build()));
+
+        results.put("statistiche", loadRunner.run(REQUESTS, index -> get(index % 2 == 0
+                        ? baseUrl + "/api/products/statistics?breakdown=category,month"
+                        : baseUrl + "/api/products/statistics?userId=" + userIds.get(index % userIds.size()),
+                tokens.get(index % tokens.size()))));
+        return results;
+    }
+
+    // Prodotti disponibili letti con la paginazione a cursore e la sola colonna id
+    private List<Long> availableProductIds(String baseUrl, String token, int count) throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>(count);
+        String cursor = null;
+        do {
+            String url = baseUrl + "/api/products/filter?status=AVAILABLE&fields=id&size=500"
+                    + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+            HttpResponse<String> response = httpClient.send(get(url, token), HttpResponse.BodyHandlers.ofString());
+            JsonNode page = readJson(response.body());
+            page.get("content").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null && ids.size() < count);
+        return ids.size() > count ? ids.subList(0, count) : ids;
+    }
+
+    private static HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Authorization", "Bearer " + token).GET().build();
+    }
+
+    private JsonNode readJson(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Risposta non valida: " + body, e);
+        }
+    }
+
+    private static void report(Map<String, LoadRunner.Result> results) throws IOException {
+        List<String> table = new ArrayList<>();
+        List<String> csv = new ArrayList<>();
+        table.add(String.format("%-12s %9s %7s %10s %9s %9s %9s %9s", "scenario", "richieste", "errori", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        csv.add("scenario,requests,errors,throughput,p50_ms,p90_ms,p99_ms,max_ms");
+        results.forEach((scenario, result) -> {
+            table.add(String.format("%-12s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f", scenario, result.requests(),
+                    result.errors(), result.throughput(), result.percentile(0.50), result.percentile(0.90),
+                    result.percentile(0.99), result.percentile(1.0)));
+            csv.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f", scenario, result.requests(),
+                    result.errors(), result.throughput(), result.percentile(0.50), result.percentile(0.90),
+                    result.percentile(0.99), result.percentile(1.0)));
+        });
+        table.forEach(System.out::println);
+        Path output = Path.of("target", "load-test-results.csv");
+        Files.createDirectories(output.getParent());
+        Files.write(output, csv);
+        results.forEach((scenario, result) ->
+                assertTrue(result.errors() < result.requests(), "Nessuna richiesta riuscita nello scenario " + scenario));
+    }
+}
@@ -0,0 +1,111 @@
+package com.borealis.backend.loadtest;
+
+import com.borealis.backend.BackendApplication;
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.request.ProductBatchRequestDTO;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.response.ProductBatchItemResultDTO;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.security.jwt.JwtUtils;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import com.borealis.backend.service.ProductBatchService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Confronta throughput e latenze (p50/p99) delle richieste eseguite su thread di piattaforma e su thread virtuali,
+ * per la lista prodotti (GET /api/products) e la vendita (PUT /api/products/{id}/mark-sold).
+ * Ogni modalità avvia l'applicazione su una porta casuale con un proprio database H2.
+ *
+ * Esecuzione: mvn -Pload-test test [-Dloadtest.requests=2000] [-Dloadtest.concurrency=200] [-Dloadtest.tomcatThreads=50]
+ */
+@Tag("load")
+class ExecutionModeLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 200);
+    private static final int TOMCAT_THREADS = Integer.getInteger("loadtest.tomcatThreads", 50);
+
+    private final LoadRunner loadRunner = new LoadRunner(CONCURRENCY);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %-10s %8s %7s %10s %9s %9s", "modalita", "scenario", "richieste", "errori", "req/s", "p50 ms", "p99 ms"));
+        report.addAll(run(false));
+        report.addAll(run(true));
+        report.forEach(System.out::println);
+    }
+
+    private List<String> run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtuale" : "piattaforma";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                // Argomenti da riga di comando: a differenza di properties() prevalgono su application.properties
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--borealis.app.jdbcConnectionLimit=" + (virtualThreads ? 10 : 0),
+                        "--borealis.app.searchRebuildOnStartup=false")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            User seller = context.getBean(UserRepository.class).findByEmail("user@borealis.com").orElseThrow();
+            UserDetailsImpl principal = UserDetailsImpl.build(seller);
+            String token = context.getBean(JwtUtils.class)
+                    .generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+            List<Long> productIds = seed(context, seller);
+
+            String base = "http://localhost:" + port + "/api/products";
+            LoadRunner.Result list = loadRunner.run(REQUESTS, index -> HttpRequest.newBuilder(URI.create(base + "?size=50"))
+                    .header("Authorization", "Bearer " + token).GET().build());
+            LoadRunner.Result markSold = loadRunner.run(REQUESTS, index -> HttpRequest.newBuilder(URI.create(base + "/" + productIds.get(index) + "/mark-sold"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"sellerId\":" + seller.getId() + "}"))
+                    .build());
+            assertTrue(list.errors() < REQUESTS && markSold.errors() < REQUESTS, "Nessuna richiesta completata in modalità " + mode);
+            return List.of(format(mode, "lista", list), format(mode, "vendita", markSold));
+        }
+    }
+
+    private List<Long> seed(ConfigurableApplicationContext context, User owner) {
+        Category category = context.getBean(CategoryRepository.class).save(new Category(null, "Categoria carico", new ArrayList<>()));
+        ProductBatchService batchService = context.getBean(ProductBatchService.class);
+        List<Long> ids = new ArrayList<>(REQUESTS);
+        for (int from = 0; from < REQUESTS; from += 1000) {
+            List<ProductRequestDTO> items = new ArrayList<>();
+            for (int i = from; i < Math.min(from + 1000, REQUESTS); i++) {
+                ProductRequestDTO item = new ProductRequestDTO();
+                item.setDescription("Prodotto carico " + i);
+                item.setCurrentPrice(BigDecimal.valueOf(1000 + i % 4000, 2));
+                item.setGender(Gender.UNISEX);
+                item.setOwnerId(owner.getId());
+                item.setCategoryId(category.getId());
+                items.add(item);
+            }
+            batchService.createProducts(new ProductBatchRequestDTO(items)).getResults().stream()
+                    .map(ProductBatchItemResultDTO::getProductId)
+                    .forEach(ids::add);
+        }
+        return ids;
+    }
+
+    private static String format(String mode, String scenario, LoadRunner.Result result) {
+        return String.format("%-10s %-10s %8d %7d %10.1f %9.2f %9.2f", mode, scenario, result.requests(), result.errors(),
+                result.throughput(), result.percentile(0.50), result.percentile(0.99));
+    }
+}
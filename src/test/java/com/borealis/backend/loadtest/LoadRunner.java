@@ -0,0 +1,105 @@
+package com.borealis.backend.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Esegue un numero fisso di richieste HTTP con un numero fisso di client concorrenti e ne misura le latenze.
+ * Le risposte con stato 4xx/5xx e gli errori di rete vengono contati come errori.
+ */
+final class LoadRunner {
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final int concurrency;
+
+    LoadRunner(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    Result run(int requests, IntFunction<HttpRequest> requestFactory) throws InterruptedException {
+        return run(requests, requestFactory, null);
+    }
+
+    /**
+     * @param requestFactory Costruisce la richiesta di indice 0..requests-1.
+     * @param bodyConsumer Se non null riceve il corpo delle risposte riuscite con il loro indice; altrimenti il corpo viene scartato.
+     */
+    Result run(int requests, IntFunction<HttpRequest> requestFactory, ObjIntConsumer<String> bodyConsumer)
+            throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            clients.submit(() -> {
+                for (int index = next.getAndIncrement(); index < requests; index = next.getAndIncrement()) {
+                    long requestStart = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = httpClient.send(requestFactory.apply(index), bodyConsumer != null
+                                ? HttpResponse.BodyHandlers.ofString()
+                                : HttpResponse.BodyHandlers.<String>replacing(null));
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        } else if (bodyConsumer != null) {
+                            bodyConsumer.accept(response.body(), index);
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - requestStart;
+                }
+            });
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(10, TimeUnit.MINUTES)) {
+            clients.shutdownNow();
+            throw new IllegalStateException("Test di carico non terminato entro 10 minuti");
+        }
+        return new Result(latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    static final class Result {
+        private final long[] sortedLatencies;
+        private final int errors;
+        private final long elapsedNanos;
+
+        private Result(long[] latencies, int errors, long elapsedNanos) {
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        int requests() {
+            return sortedLatencies.length;
+        }
+
+        int errors() {
+            return errors;
+        }
+
+        // Richieste completate al secondo (riuscite e fallite)
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        // Latenza in millisecondi al quantile indicato (nearest-rank)
+        double percentile(double quantile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(quantile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.borealis.backend.metrics;
+
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.security.jwt.JwtUtils;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Le metriche di service, SQL, pool e filtro JWT sono esposte su /actuator/prometheus, solo per il ruolo di monitoraggio.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private User user;
+    private User ops;
+
+    @BeforeEach
+    void setUp() {
+        user = saveUser("metrics-user@borealis.com", "ROLE_USER");
+        ops = saveUser("metrics-ops@borealis.com", "ROLE_OPS");
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.delete(user);
+        userRepository.delete(ops);
+    }
+
+    @Test
+    void opsRoleScrapesInstrumentation() throws Exception {
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.AUTHORIZATION, token(user)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, token(user)))
+                .andExpect(status().isForbidden());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, token(ops)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(scrape)
+                .contains("borealis_service_seconds_bucket{")
+                .contains("class=\"com.borealis.backend.service.CategoryService\"")
+                .contains("borealis_sql_statements_count{")
+                .contains("uri=\"/api/categories\"")
+                .contains("borealis_sql_time_seconds_count{")
+                .contains("borealis_auth_filter_seconds_count{")
+                .contains("outcome=\"authenticated\"")
+                .contains("hikaricp_connections_active{");
+    }
+
+    private User saveUser(String email, String role) {
+        User saved = new User("Utente metriche", email, "password");
+        saved.addRole(role);
+        return userRepository.save(saved);
+    }
+
+    private String token(User tokenUser) {
+        UserDetailsImpl principal = UserDetailsImpl.build(tokenUser);
+        return "Bearer " + jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.borealis.backend.model;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica che equals, hashCode e toString delle entità non eseguano query: le associazioni lazy (proprietario,
+ * venditore, categoria, storico prezzi, liste di prodotti) restano non inizializzate anche dopo hashing e stampa.
+ */
+@SpringBootTest
+class EntityIdentityTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User("Utente identità", "identity@borealis.com", "password");
+        owner.addRole("ROLE_USER");
+        owner = userRepository.save(owner);
+        category = categoryRepository.save(new Category(null, "Categoria identità", new ArrayList<>()));
+        product = new Product();
+        product.setOwner(owner);
+        product.setCategory(category);
+        product.setDescription("Cappotto in lana");
+        product.setGender(Gender.UNISEX);
+        product.setInsertionDate(LocalDate.now());
+        product.addPrice(BigDecimal.valueOf(80));
+        product.addPrice(BigDecimal.valueOf(60));
+        product.markAsSold(owner);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.delete(category);
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void hashingAndPrintingIssueNoSql() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Product loaded = productRepository.findById(product.getId()).orElseThrow();
+            User user = userRepository.findById(owner.getId()).orElseThrow();
+            Category loadedCategory = categoryRepository.findById(category.getId()).orElseThrow();
+            ProductPrice price = new ProductPrice(loaded, BigDecimal.ONE, null);
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            Set<Object> entities = new HashSet<>();
+            entities.add(loaded);
+            entities.add(user);
+            entities.add(loadedCategory);
+            entities.add(price);
+            String printed = String.join("\n", loaded.toString(), user.toString(), loadedCategory.toString(), price.toString());
+
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertEquals(4, entities.size());
+            assertFalse(Hibernate.isInitialized(loaded.getPriceHistory()));
+            assertFalse(Hibernate.isInitialized(user.getOwnedProducts()));
+            assertFalse(Hibernate.isInitialized(user.getSoldProducts()));
+            assertFalse(Hibernate.isInitialized(loadedCategory.getProducts()));
+            assertTrue(printed.contains("Cappotto in lana"));
+            assertFalse(printed.contains(user.getPassword()), "La password codificata non finisce nei log");
+        });
+    }
+
+    @Test
+    void lazyProxiesCompareByIdWithoutLoading() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Product loaded = productRepository.findById(product.getId()).orElseThrow();
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            // Proxy non inizializzati contro le istanze caricate in un'altra transazione
+            assertEquals(owner, loaded.getOwner());
+            assertEquals(loaded.getOwner(), owner);
+            assertEquals(owner.hashCode(), loaded.getOwner().hashCode());
+            assertEquals(loaded.getSeller(), loaded.getOwner());
+            assertEquals(category, loaded.getCategory());
+            assertEquals(product, loaded);
+            assertNotEquals(loaded.getOwner(), loaded.getCategory());
+
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertFalse(Hibernate.isInitialized(loaded.getOwner()));
+            assertFalse(Hibernate.isInitialized(loaded.getCategory()));
+        });
+    }
+
+    @Test
+    void transientEntitiesKeepTheirHashAcrossSave() {
+        Category transientCategory = new Category(null, "Categoria identità nuova", new ArrayList<>());
+        assertNotEquals(transientCategory, new Category(null, "Categoria identità nuova", new ArrayList<>()));
+
+        Set<Category> categories = new HashSet<>();
+        categories.add(transientCategory);
+        Category saved = categoryRepository.save(transientCategory);
+        try {
+            assertTrue(categories.contains(transientCategory));
+            assertTrue(categories.contains(categoryRepository.findById(saved.getId()).orElseThrow()));
+        } finally {
+            categoryRepository.delete(saved);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.borealis.backend.repository;
+
+import com.borealis.backend.BackendApplication;
+import com.borealis.backend.dto.response.ProductStatisticsResponseDTO;
+import com.borealis.backend.service.ProductStatisticsService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Un database creato da ddl-auto=update con il codice precedente alle migrazioni (lo schema di V1, senza storico Flyway)
+ * viene registrato come versione 1, riceve le migrazioni successive e l'applicazione si avvia con ddl-auto=validate.
+ */
+class LegacySchemaMigrationTest {
+
+    private static final String URL =
+            "jdbc:h2:mem:legacy-schema;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void legacySchemaIsBaselinedMigratedAndValidated() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("insert into users (email, name, password) values ('esistente@borealis.com', 'Utente esistente', 'password')");
+        jdbcTemplate.update("insert into categories (name) values ('Categoria esistente')");
+        jdbcTemplate.update("insert into products (current_price, insertion_date, sold, category_id, owner_id, gender, description)"
+                + " values (30.00, current_date, false, 1, 1, 'UNISEX', 'Prodotto esistente')");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                // Argomenti da riga di comando: a differenza di properties() prevalgono su application.properties
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + URL,
+                        "--spring.jpa.hibernate.ddl-auto=validate",
+                        "--borealis.app.searchRebuildOnStartup=false")) {
+            MigrationInfo[] applied = context.getBean(Flyway.class).info().applied();
+            assertEquals(List.of("1", "2", "3", "4"), Arrays.stream(applied).map(migration -> migration.getVersion().getVersion()).toList());
+            assertTrue(applied[0].getType().isBaseline(), "La versione 1 deve essere la baseline, non la migrazione eseguita");
+
+            // La riga esistente riceve la versione iniziale e le statistiche vengono ricostruite all'avvio
+            assertEquals(0L, jdbcTemplate.queryForObject("select version from products where description = 'Prodotto esistente'", Long.class));
+            ProductStatisticsResponseDTO statistics = context.getBean(ProductStatisticsService.class).getStatistics(1L);
+            assertEquals(1, statistics.getTotalItems());
+            assertEquals(0, statistics.getPotentialRevenue().compareTo(new BigDecimal("30.00")));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.borealis.backend.repository;
+
+import com.borealis.backend.SqlStatementRecorder;
+import com.borealis.backend.SqlStatementRecorder.RecordedStatement;
+import com.borealis.backend.service.CategoryService;
+import com.borealis.backend.service.ProductService;
+import com.borealis.backend.service.SyntheticDataGenerator;
+import com.borealis.backend.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Esegue EXPLAIN sugli statement SQL che Hibernate genera davvero per filtri, paginazione, proprietà, storico prezzi,
+ * statistiche ed eliminazioni, registrati con SqlStatementRecorder mentre si chiamano i metodi dei service e dei repository,
+ * e fallisce se il piano legge per intero una delle tabelle grandi (tableScan in H2, Seq Scan in PostgreSQL).
+ * Il database è dedicato e ne vengono rimossi i vincoli di chiave esterna: H2 crea un indice implicito per ogni vincolo,
+ * mentre PostgreSQL no, e quegli indici nasconderebbero proprio quelli mancanti nelle migrazioni.
+ * Non sono incluse le aggregazioni globali senza predicato (es. aggregateStatistics, aggregateStatisticsByCategory),
+ * che per definizione leggono tutta la tabella e per questo sono servite dal read model product_statistics.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:query-plan;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@Import(SqlStatementRecorder.Config.class)
+class ProductQueryPlanTest {
+
+    // Solo le tabelle che crescono con i dati: users e categories sono lette per chiave primaria dalle join,
+    // ma H2, a differenza di PostgreSQL, ordina le join ignorando il limite della pagina e può partire
+    // dalla piccola tabella categories anche quando l'indice ordinato su products basterebbe.
+    private static final Pattern FULL_SCAN = Pattern.compile(
+            "public\\.(products|product_prices|user_roles)\\.tableScan|Seq Scan on (products|product_prices|user_roles)\\b");
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long categoryId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        // Il database è solo di questa classe: il dataset viene generato una volta e riusato dai test successivi
+        if (jdbcTemplate.queryForObject("select count(*) from products", Long.class) == 0) {
+            jdbcTemplate.queryForList("select table_name, constraint_name from information_schema.table_constraints"
+                            + " where constraint_type = 'FOREIGN KEY'")
+                    .forEach(fk -> jdbcTemplate.execute("alter table " + fk.get("table_name") + " drop constraint " + fk.get("constraint_name")));
+            syntheticDataGenerator.generate(50, 10, 5000, "password");
+        }
+        ownerId = jdbcTemplate.queryForObject("select min(owner_id) from products", Long.class);
+        categoryId = jdbcTemplate.queryForObject("select min(category_id) from products", Long.class);
+        productId = jdbcTemplate.queryForObject("select min(product_id) from product_prices", Long.class);
+    }
+
+    @Test
+    void filterOwnershipAndStatisticsQueriesUseIndexes() {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        // getFilteredProducts / getProductsPage: combinazioni dei predicati, pagina successiva e ordinamento per prezzo
+        calls.put("getFilteredProducts(owner)", () -> productService.getFilteredProducts(null, ownerId, null, null));
+        calls.put("getFilteredProducts(owner, available)", () -> productService.getFilteredProducts(null, ownerId, null, "available"));
+        calls.put("getFilteredProducts(owner, category)", () -> productService.getFilteredProducts(null, ownerId, categoryId, null));
+        calls.put("getFilteredProducts(category)", () -> productService.getFilteredProducts(null, null, categoryId, null));
+        calls.put("getFilteredProducts(category, sold)", () -> productService.getFilteredProducts(null, null, categoryId, "sold"));
+        calls.put("getProductsPage()", () -> productService.getProductsPage(null, null, null, null,
+                productService.getProductsPage(null, null, null, null, null, null, null).getNextCursor(), null, null));
+        calls.put("getProductsPage(available)", () -> productService.getProductsPage(null, null, null, "available", null, null, null));
+        calls.put("getProductsPage(owner)", () -> productService.getProductsPage(null, ownerId, null, null, null, null, null));
+        calls.put("getProductsPage(category, sold)", () -> productService.getProductsPage(null, null, categoryId, "sold", null, null, null));
+        calls.put("getProductsPage(price_asc)", () -> productService.getProductsPage(null, null, null, null,
+                productService.getProductsPage(null, null, null, null, null, null, "price_asc").getNextCursor(), null, "price_asc"));
+        // Proprietà, prodotti venduti da un utente e storico prezzi
+        calls.put("findByOwnerId", () -> productRepository.findByOwnerId(ownerId));
+        calls.put("User.soldProducts", () -> userRepository.findById(ownerId).orElseThrow().getSoldProducts().size());
+        calls.put("getProductPriceHistory", () -> productService.getProductPriceHistory(productId));
+        // Statistiche di un proprietario e vendite mensili globali
+        calls.put("getProductStatistics(owner)", () -> productService.getProductStatistics(ownerId, true, true));
+        calls.put("getProductStatistics()", () -> productService.getProductStatistics(null, false, true));
+        calls.put("aggregateStatisticsByOwner", () -> productRepository.aggregateStatisticsByOwner(ownerId));
+        calls.put("aggregateStatisticsByOwnerForCategory", () -> productRepository.aggregateStatisticsByOwnerForCategory(categoryId));
+        // Eliminazioni: lock e aggregazioni sulle righe coinvolte, poi le cancellazioni a cascata (annullate dal rollback)
+        calls.put("deleteProduct", () -> productService.deleteProduct(productId));
+        calls.put("deleteCategory", () -> categoryService.deleteCategory(categoryId));
+        calls.put("deleteUser", () -> userService.deleteUser(ownerId));
+
+        // Statement distinti con i parametri della prima esecuzione; gli insert non leggono tabelle
+        Map<String, RecordedStatement> statements = new LinkedHashMap<>();
+        Map<String, String> callers = new LinkedHashMap<>();
+        calls.forEach((name, call) -> {
+            SqlStatementRecorder.start();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    call.run();
+                });
+            } finally {
+                for (RecordedStatement statement : SqlStatementRecorder.stop()) {
+                    if (!statement.sql().startsWith("insert") && !statement.sql().endsWith("[batch]")
+                            && statements.putIfAbsent(statement.sql(), statement) == null) {
+                        callers.put(statement.sql(), name);
+                    }
+                }
+            }
+        });
+        assertTrue(statements.size() >= calls.size(), "Statement registrati: " + statements.keySet());
+
+        List<String> violations = new ArrayList<>();
+        statements.values().forEach(statement -> {
+            String plan = String.join("\n", jdbcTemplate.queryForList("explain " + statement.sql(), String.class,
+                    statement.parameters().toArray()));
+            if (FULL_SCAN.matcher(plan).find()) {
+                violations.add(callers.get(statement.sql()) + ": " + statement.sql() + "\n    " + plan.replaceAll("\\s+", " "));
+            }
+        });
+        if (!violations.isEmpty()) {
+            fail("Query con scansione sequenziale:\n" + String.join("\n", violations));
+        }
+    }
+
+    @Test
+    void migrationsAreAppliedOnce() {
+        assertEquals(List.of("1", "2", "3", "4"), Arrays.stream(flyway.info().applied())
+                .map(migration -> migration.getVersion().getVersion())
+                .toList());
+        assertTrue(Arrays.stream(flyway.info().applied()).allMatch(migration -> migration.getState().isApplied()));
+        assertEquals(0, flyway.migrate().migrationsExecuted);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.indexes where index_name = 'idx_products_owner_sold_insertion'", Long.class));
+    }
+}
@@ -0,0 +1,74 @@
+package com.borealis.backend.search;
+
+import com.borealis.backend.repository.projection.ProductSearchDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryProductSearchIndexTest {
+
+    private InMemoryProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryProductSearchIndex();
+        index.rebuild(List.of(
+                document(1L, "Maglione in lana", "Borealis", "100% lana merino"),
+                document(2L, "Camicia di cotone", "Lanacraft", "cotone"),
+                document(3L, "Giacca", "Nord", "Lanà e poliestere"),
+                document(4L, "Maglione a righe", "Nord", "cotone")));
+    }
+
+    @Test
+    void ranksExactMatchesInDescriptionFirst() {
+        ProductSearchHits hits = index.search("lana", 0, 10);
+
+        // Parola intera in descrizione e composizione, poi solo composizione (accento ignorato), poi solo prefisso della marca
+        assertEquals(List.of(1L, 3L, 2L), hits.getProductIds());
+        assertEquals(3, hits.getTotalHits());
+    }
+
+    @Test
+    void requiresEveryTermAndMatchesPrefixes() {
+        assertEquals(List.of(4L), index.search("MAGL cot", 0, 10).getProductIds());
+        assertEquals(List.of(), index.search("maglione seta", 0, 10).getProductIds());
+    }
+
+    @Test
+    void paginatesAndFollowsUpdates() {
+        assertEquals(List.of(2L), index.search("lana", 2, 1).getProductIds());
+
+        index.index(List.of(document(2L, "Camicia di seta", "Altro", "seta")));
+        index.remove(List.of(1L));
+
+        assertEquals(List.of(3L), index.search("lana", 0, 10).getProductIds());
+        assertEquals(List.of(2L), index.search("seta", 0, 10).getProductIds());
+    }
+
+    private static ProductSearchDocument document(Long id, String description, String brand, String composition) {
+        return new ProductSearchDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public String getBrand() {
+                return brand;
+            }
+
+            @Override
+            public String getComposition() {
+                return composition;
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.borealis.backend.security;
+
+import com.borealis.backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    started.countDown();
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofSeconds(10), meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // Un'operazione in esecuzione e una in coda: la terza viene rifiutata senza attendere
+            Future<String> first = callers.submit(() -> encoder.encode("prima"));
+            started.await();
+            Future<String> second = callers.submit(() -> encoder.encode("seconda"));
+            while (meterRegistry.get("borealis.password.hash.queue").gauge().value() == 0) {
+                Thread.sleep(10);
+            }
+            assertThrows(ServiceBusyException.class, () -> encoder.encode("terza"));
+            assertEquals(1.0, meterRegistry.get("borealis.password.hash.rejected").counter().count());
+
+            release.countDown();
+            assertEquals("hash:prima", first.get());
+            assertEquals("hash:seconda", second.get());
+            assertTrue(encoder.matches("prima", "hash:prima"));
+            assertEquals(3, meterRegistry.get("borealis.password.hash").timers().stream().mapToLong(timer -> timer.count()).sum());
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            encoder.shutdown();
+        }
+    }
+}
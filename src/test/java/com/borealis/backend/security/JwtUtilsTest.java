@@ -0,0 +1,58 @@
+package com.borealis.backend.security;
+
+import com.borealis.backend.security.jwt.JwtUtils;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtMTIzNA";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = jwtUtils(86_400_000);
+    }
+
+    @Test
+    void verifiedTokensAreCachedAndInvalidOnesRejected() {
+        String token = token(jwtUtils);
+
+        assertEquals("jwt@borealis.com", jwtUtils.parseJwtToken(token).getSubject());
+        assertSame(jwtUtils.parseJwtToken(token), jwtUtils.parseJwtToken(token));
+
+        // Un token alterato ha un hash diverso e non può essere servito dalla cache
+        String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+        assertNull(jwtUtils.parseJwtToken(tampered));
+        assertNull(jwtUtils.parseJwtToken("non-un-token"));
+
+        JwtUtils expiring = jwtUtils(-1000);
+        assertNull(expiring.parseJwtToken(token(expiring)));
+    }
+
+    private static String token(JwtUtils jwtUtils) {
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "Utente JWT", "jwt@borealis.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static JwtUtils jwtUtils(int expirationMs) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxSize", 100L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
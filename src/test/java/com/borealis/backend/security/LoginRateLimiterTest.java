@@ -0,0 +1,37 @@
+package com.borealis.backend.security;
+
+import com.borealis.backend.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final LoginRateLimiter rateLimiter = new LoginRateLimiter(5, 2, Duration.ofMinutes(1), now::get);
+
+    @Test
+    void limitsAttemptsPerAccountAndPerIp() {
+        rateLimiter.acquire("10.0.0.1", "mario@borealis.com");
+        rateLimiter.acquire("10.0.0.2", "MARIO@borealis.com ");
+        TooManyRequestsException limited = assertThrows(TooManyRequestsException.class,
+                () -> rateLimiter.acquire("10.0.0.3", "mario@borealis.com"));
+        assertEquals(30, limited.getRetryAfterSeconds()); // 2 tentativi al minuto: un token ogni 30 secondi
+
+        // Altri account dallo stesso IP fino al limite dell'IP
+        rateLimiter.acquire("10.0.0.1", "a@borealis.com");
+        rateLimiter.acquire("10.0.0.1", "b@borealis.com");
+        rateLimiter.acquire("10.0.0.1", "c@borealis.com");
+        rateLimiter.acquire("10.0.0.1", "d@borealis.com");
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("10.0.0.1", "e@borealis.com"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertDoesNotThrow(() -> rateLimiter.acquire("10.0.0.4", "mario@borealis.com"));
+    }
+}
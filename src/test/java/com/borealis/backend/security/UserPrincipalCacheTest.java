@@ -0,0 +1,97 @@
+package com.borealis.backend.security;
+
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.security.jwt.JwtUtils;
+import com.borealis.backend.security.services.UserDetailsImpl;
+import com.borealis.backend.security.services.UserPrincipalCache;
+import com.borealis.backend.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class UserPrincipalCacheTest {
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("Utente principal", "principal-cache@borealis.com", "password");
+        user.addRole("ROLE_USER");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteUser(user.getId());
+    }
+
+    @Test
+    void cachedPrincipalIsReusedUntilRolesChange() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertEquals(Set.of("ROLE_USER"), roles(userPrincipalCache.get(user.getEmail())));
+
+        statistics.clear();
+        UserDetailsImpl cached = userPrincipalCache.get(user.getEmail());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertNull(cached.getPassword());
+
+        UserService.UpdateRolesRequestDTO request = new UserService.UpdateRolesRequestDTO();
+        request.setRoles(Set.of("SUPERUSER"));
+        userService.updateRoles(user.getId(), request);
+        assertEquals(Set.of("ROLE_SUPERUSER"), roles(userPrincipalCache.get(user.getEmail())));
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        assertThrows(UsernameNotFoundException.class, () -> userPrincipalCache.get("sconosciuto@borealis.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userPrincipalCache.get("sconosciuto@borealis.com"));
+    }
+
+    @Test
+    void principalIsBuiltFromTokenClaims() {
+        UserDetailsImpl principal = userPrincipalCache.get(user.getEmail());
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        UserDetailsImpl fromClaims = jwtUtils.buildUserDetailsFromClaims(jwtUtils.parseJwtToken(token));
+
+        assertEquals(user.getId(), fromClaims.getId());
+        assertEquals(user.getEmail(), fromClaims.getUsername());
+        assertEquals("Utente principal", fromClaims.getName());
+        assertEquals(Set.of("ROLE_USER"), roles(fromClaims));
+    }
+
+    private static Set<String> roles(UserDetailsImpl principal) {
+        return Set.copyOf(principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+}
@@ -0,0 +1,140 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.config.CacheConfig;
+import com.borealis.backend.dto.request.CategoryRequestDTO;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.request.ProductUpdateRequestDTO;
+import com.borealis.backend.dto.response.CategoryResponseDTO;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CategoryServiceCacheTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User("Utente cache", "category-cache@borealis.com", "password");
+        owner.addRole("ROLE_USER");
+        owner = userRepository.save(owner);
+        categoryId = categoryService.createCategory(categoryRequest("Categoria cache")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        if (categoryId != null) {
+            categoryService.deleteCategory(categoryId);
+        }
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void readsAreCachedAndWritesInvalidate() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        categoryService.getCategoryById(categoryId);
+        categoryService.getAllCategories();
+
+        statistics.clear();
+        assertEquals("Categoria cache", categoryService.getCategoryById(categoryId).getName());
+        assertTrue(categoryService.getAllCategories().stream().anyMatch(category -> category.getId().equals(categoryId)));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(nativeCache(CacheConfig.CATEGORIES).stats().hitCount() > 0);
+
+        // La creazione del prodotto usa la categoria in cache: nessuna select sulla tabella categories
+        statistics.clear();
+        productService.createProduct(product());
+        assertEquals(0, statistics.getEntityStatistics("com.borealis.backend.model.Category").getLoadCount());
+
+        CategoryResponseDTO updated = categoryService.updateCategory(categoryId, categoryRequest("Categoria rinominata"));
+        assertEquals(updated.getName(), categoryService.getCategoryById(categoryId).getName());
+        assertTrue(categoryService.getAllCategories().stream().anyMatch(category -> category.getName().equals("Categoria rinominata")));
+
+        categoryService.deleteCategory(categoryId);
+        Long deletedId = categoryId;
+        categoryId = null;
+        assertThrows(IllegalArgumentException.class, () -> categoryService.getCategoryById(deletedId));
+        assertTrue(categoryService.getAllCategories().stream().noneMatch(category -> category.getId().equals(deletedId)));
+    }
+
+    @Test
+    void staleCachedCategoryIsReportedAsNotFound() {
+        Long productId = productService.createProduct(product()).getId();
+        Long staleId = categoryService.createCategory(categoryRequest("Categoria superata")).getId();
+        categoryService.getCategoryById(staleId);
+        // Eliminata senza passare dal service (es. da un'altra istanza): la voce resta in cache
+        jdbcTemplate.update("delete from categories where id = ?", staleId);
+
+        ProductRequestDTO create = product();
+        create.setCategoryId(staleId);
+        assertThrows(IllegalArgumentException.class, () -> productService.createProduct(create));
+
+        ProductUpdateRequestDTO update = new ProductUpdateRequestDTO();
+        update.setCategoryId(staleId);
+        assertThrows(IllegalArgumentException.class, () -> productService.updateProduct(productId, update));
+        assertEquals(categoryId, productRepository.findById(productId).orElseThrow().getCategory().getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache(String name) {
+        return (Cache<Object, Object>) cacheManager.getCache(name).getNativeCache();
+    }
+
+    private static CategoryRequestDTO categoryRequest(String name) {
+        CategoryRequestDTO dto = new CategoryRequestDTO();
+        dto.setName(name);
+        return dto;
+    }
+
+    private ProductRequestDTO product() {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setDescription("Prodotto cache");
+        dto.setGender(Gender.UNISEX);
+        dto.setCurrentPrice(new BigDecimal("15.00"));
+        dto.setOwnerId(owner.getId());
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+}
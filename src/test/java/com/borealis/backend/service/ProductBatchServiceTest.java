@@ -0,0 +1,114 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.request.ProductBatchRequestDTO;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.response.ProductBatchItemResultDTO;
+import com.borealis.backend.dto.response.ProductBatchResponseDTO;
+import com.borealis.backend.dto.response.ProductResponseDTO;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductBatchServiceTest {
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStatisticsService productStatisticsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User("Utente batch", "batch@borealis.com", "password");
+        owner.addRole("ROLE_USER");
+        owner = userRepository.save(owner);
+        category = categoryRepository.save(new Category(null, "Categoria batch", new ArrayList<>()));
+        productStatisticsService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.delete(category);
+        userRepository.delete(owner);
+        productStatisticsService.rebuild();
+    }
+
+    @Test
+    void insertsValidItemsAndReportsInvalidOnes() {
+        ProductRequestDTO missingGender = item("Giacca batch", "30.00", owner.getId());
+        missingGender.setGender(null);
+        List<ProductRequestDTO> items = List.of(
+                item("Maglione batch", "10.00", owner.getId()),
+                missingGender,
+                item("Camicia batch", "20.00", -1L),
+                item("Cappotto batch", "40.50", owner.getId()));
+
+        ProductBatchResponseDTO response = productBatchService.createProducts(new ProductBatchRequestDTO(items));
+
+        assertEquals(2, response.getCreated());
+        assertEquals(2, response.getFailed());
+        List<ProductBatchItemResultDTO> results = response.getResults();
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(List.of("gender: Il genere è obbligatorio"), results.get(1).getErrors());
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(results.get(3).isSuccess());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ProductResponseDTO created = productService.getProductById(results.get(3).getProductId());
+            assertEquals("Cappotto batch", created.getDescription());
+            assertEquals(owner.getId(), created.getOwner().getId());
+            assertEquals(1, productService.getProductPriceHistory(created.getId()).size());
+        });
+
+        assertEquals(2, productStatisticsService.getStatistics(owner.getId()).getTotalItems());
+        assertEquals(0, new BigDecimal("50.50").compareTo(productStatisticsService.getStatistics(owner.getId()).getPotentialRevenue()));
+        assertEquals(1, productService.searchProducts("cappotto", null, null).getTotalHits());
+    }
+
+    private ProductRequestDTO item(String description, String price, Long ownerId) {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setDescription(description);
+        dto.setCurrentPrice(new BigDecimal(price));
+        dto.setOwnerId(ownerId);
+        dto.setCategoryId(category.getId());
+        dto.setGender(Gender.UNISEX);
+        return dto;
+    }
+}
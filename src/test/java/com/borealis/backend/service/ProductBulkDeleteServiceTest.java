@@ -0,0 +1,133 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.request.ProductBulkDeleteRequestDTO;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.response.ProductBulkDeleteResponseDTO;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.Product;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductPriceRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductBulkDeleteServiceTest {
+
+    @Autowired
+    private ProductBulkDeleteService productBulkDeleteService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStatisticsService productStatisticsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductPriceRepository productPriceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private User owner;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User("Utente eliminazione", "bulkdelete@borealis.com", "password");
+        owner.addRole("ROLE_USER");
+        owner = userRepository.save(owner);
+        category = categoryRepository.save(new Category(null, "Categoria eliminazione", new ArrayList<>()));
+        productStatisticsService.rebuild();
+        // Blocchi piccoli per attraversare più transazioni con pochi prodotti
+        ReflectionTestUtils.setField(productBulkDeleteService, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(productBulkDeleteService, "chunkSize", 500);
+        productRepository.deleteAll();
+        categoryRepository.delete(category);
+        userRepository.delete(owner);
+        productStatisticsService.rebuild();
+    }
+
+    @Test
+    void deletesSoldProductsOfOwnerBeforeDate() {
+        List<Long> sold = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Long productId = createProduct("10.00");
+            productService.markProductAsSold(productId, owner.getId());
+            sold.add(productId);
+        }
+        Long available = createProduct("7.50");
+
+        ProductBulkDeleteRequestDTO request = new ProductBulkDeleteRequestDTO();
+        request.setOwnerId(owner.getId());
+        request.setStatus("SOLD");
+        request.setSoldBefore(LocalDate.now().plusDays(1));
+        ProductBulkDeleteResponseDTO response = productBulkDeleteService.deleteProducts(request);
+
+        assertEquals(5, response.getDeletedProducts());
+        assertEquals(5, response.getDeletedPrices());
+        assertEquals(3, response.getChunks());
+        assertTrue(productRepository.findAllById(sold).isEmpty());
+        assertTrue(productRepository.existsById(available));
+        assertEquals(1, productPriceRepository.count());
+        assertEquals(1, productStatisticsService.getStatistics(owner.getId()).getTotalItems());
+        assertEquals(0, productStatisticsService.getStatistics(owner.getId()).getSoldItems());
+        assertEquals(0, new BigDecimal("7.50").compareTo(productStatisticsService.getStatistics(owner.getId()).getPotentialRevenue()));
+    }
+
+    @Test
+    void deletesListedIdsMatchingFilter() {
+        Long first = createProduct("10.00");
+        Long second = createProduct("20.00");
+        Long third = createProduct("30.00");
+        productService.markProductAsSold(third, owner.getId());
+
+        // Il terzo prodotto è venduto e viene escluso dal filtro; l'ID inesistente viene ignorato
+        ProductBulkDeleteRequestDTO request = new ProductBulkDeleteRequestDTO();
+        request.setProductIds(List.of(first, second, third, -1L));
+        request.setStatus("AVAILABLE");
+        ProductBulkDeleteResponseDTO response = productBulkDeleteService.deleteProducts(request);
+
+        assertEquals(2, response.getDeletedProducts());
+        assertEquals(List.of(third), productRepository.findAll().stream().map(Product::getId).toList());
+        assertEquals(1, productService.searchProducts("eliminazione", null, null).getTotalHits());
+
+        assertThrows(IllegalArgumentException.class, () -> productBulkDeleteService.deleteProducts(new ProductBulkDeleteRequestDTO()));
+    }
+
+    private Long createProduct(String price) {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setDescription("Prodotto eliminazione");
+        dto.setGender(Gender.UNISEX);
+        dto.setCurrentPrice(new BigDecimal(price));
+        dto.setOwnerId(owner.getId());
+        dto.setCategoryId(category.getId());
+        return productService.createProduct(dto).getId();
+    }
+}
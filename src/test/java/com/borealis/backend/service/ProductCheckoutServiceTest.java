@@ -0,0 +1,136 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.request.CheckoutRequestDTO;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.request.ProductUpdateRequestDTO;
+import com.borealis.backend.dto.response.CheckoutReceiptResponseDTO;
+import com.borealis.backend.exception.ConflictException;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductCheckoutServiceTest {
+
+    @Autowired
+    private ProductCheckoutService productCheckoutService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStatisticsService productStatisticsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User("Utente cassa", "checkout@borealis.com", "password");
+        owner.addRole("ROLE_USER");
+        owner = userRepository.save(owner);
+        category = categoryRepository.save(new Category(null, "Categoria cassa", new ArrayList<>()));
+        productStatisticsService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.delete(category);
+        userRepository.delete(owner);
+        productStatisticsService.rebuild();
+    }
+
+    @Test
+    void sellsWholeBasketOrNothing() {
+        Long first = createProduct("12.50");
+        Long second = createProduct("30.00");
+        Long third = createProduct("8.00");
+
+        CheckoutReceiptResponseDTO receipt = productCheckoutService.checkout(new CheckoutRequestDTO(owner.getId(), List.of(first, second)));
+
+        assertEquals(2, receipt.getItemCount());
+        assertEquals(0, new BigDecimal("42.50").compareTo(receipt.getTotalAmount()));
+        assertEquals(0, new BigDecimal("4.25").compareTo(receipt.getTotalCommission()));
+        assertTrue(productRepository.findById(first).orElseThrow().isSold());
+        assertEquals(1.25, productRepository.findById(first).orElseThrow().getSellerCommissionAmount(), 1e-9);
+        assertEquals(2, productStatisticsService.getStatistics(owner.getId()).getSoldItems());
+        assertEquals(0, new BigDecimal("8.00").compareTo(productStatisticsService.getStatistics(owner.getId()).getPotentialRevenue()));
+
+        // Il secondo prodotto è già venduto: anche il terzo deve restare disponibile
+        ConflictException conflict = assertThrows(ConflictException.class,
+                () -> productCheckoutService.checkout(new CheckoutRequestDTO(owner.getId(), List.of(third, second))));
+        assertEquals(List.of(String.valueOf(second)), conflict.getDetails());
+        assertFalse(productRepository.findById(third).orElseThrow().isSold());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> productCheckoutService.checkout(new CheckoutRequestDTO(owner.getId(), List.of(third, third))));
+    }
+
+    @Test
+    void basketWithProductChangedAfterReadIsRejected() {
+        Long first = createProduct("12.50");
+        Long second = createProduct("30.00");
+        TransactionTemplate concurrentTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // La cassa legge i prodotti, poi un cambio di prezzo del secondo viene confermato prima degli update
+        ConflictException conflict = assertThrows(ConflictException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            productRepository.findByIdIn(List.of(first, second));
+            ProductUpdateRequestDTO priceChange = new ProductUpdateRequestDTO();
+            priceChange.setCurrentPrice(new BigDecimal("50.00"));
+            concurrentTransaction.executeWithoutResult(inner -> productService.updateProduct(second, priceChange));
+            productCheckoutService.checkout(new CheckoutRequestDTO(owner.getId(), List.of(first, second)));
+        }));
+        assertEquals(List.of(String.valueOf(second)), conflict.getDetails());
+        assertFalse(productRepository.findById(first).orElseThrow().isSold());
+        assertEquals(0, productStatisticsService.getStatistics(owner.getId()).getSoldItems());
+        assertEquals(0, new BigDecimal("62.50").compareTo(productStatisticsService.getStatistics(owner.getId()).getPotentialRevenue()));
+
+        // Rileggendo, lo scontrino usa il nuovo prezzo
+        CheckoutReceiptResponseDTO receipt = productCheckoutService.checkout(new CheckoutRequestDTO(owner.getId(), List.of(first, second)));
+        assertEquals(0, new BigDecimal("62.50").compareTo(receipt.getTotalAmount()));
+        assertEquals(0, new BigDecimal("62.50").compareTo(productStatisticsService.getStatistics(owner.getId()).getTotalRevenue()));
+    }
+
+    private Long createProduct(String price) {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setDescription("Prodotto cassa");
+        dto.setGender(Gender.UNISEX);
+        dto.setCurrentPrice(new BigDecimal(price));
+        dto.setOwnerId(owner.getId());
+        dto.setCategoryId(category.getId());
+        return productService.createProduct(dto).getId();
+    }
+}
@@ -0,0 +1,211 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.request.ProductUpdateRequestDTO;
+import com.borealis.backend.dto.response.ProductResponseDTO;
+import com.borealis.backend.dto.response.ProductStatisticsResponseDTO;
+import com.borealis.backend.exception.ConflictException;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.Product;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vendite concorrenti dello stesso prodotto, vendite concorrenti a eliminazioni e modifiche basate su versioni superate.
+ */
+@SpringBootTest
+class ProductConcurrencyTest {
+
+    private static final int SELLERS = 16;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStatisticsService productStatisticsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User("Utente concorrenza", "concurrency@borealis.com", "password");
+        owner.addRole("ROLE_USER");
+        owner = userRepository.save(owner);
+        category = categoryRepository.save(new Category(null, "Categoria concorrenza", new ArrayList<>()));
+        productStatisticsService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.delete(category);
+        userRepository.delete(owner);
+        productStatisticsService.rebuild();
+    }
+
+    @Test
+    void parallelSalesSellProductOnce() throws InterruptedException {
+        Long productId = createProduct();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(SELLERS);
+        for (int i = 0; i < SELLERS; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(status -> productService.markProductAsSold(productId, owner.getId()));
+                    sold.incrementAndGet();
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(List.of(), List.copyOf(unexpected));
+        assertEquals(1, sold.get());
+        assertEquals(SELLERS - 1, conflicts.get());
+        assertEquals(1L, productRepository.findById(productId).orElseThrow().getVersion());
+        assertEquals(1, productStatisticsService.getStatistics(owner.getId()).getSoldItems());
+    }
+
+    @Test
+    void deleteWaitsForConcurrentSaleAndSubtractsSoldProduct() throws Exception {
+        Long productId = createProduct();
+        CountDownLatch soldNotCommitted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> sale = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            productService.markProductAsSold(productId, owner.getId());
+            soldNotCommitted.countDown();
+            try {
+                Thread.sleep(300); // La vendita resta aperta mentre l'eliminazione parte
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(soldNotCommitted.await(10, TimeUnit.SECONDS));
+        // L'eliminazione attende il lock sulla riga del prodotto e sottrae il prodotto già venduto, non quello letto prima
+        transactionTemplate.executeWithoutResult(status -> productService.deleteProduct(productId));
+        sale.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        ProductStatisticsResponseDTO statistics = productStatisticsService.getStatistics(owner.getId());
+        assertEquals(0, statistics.getTotalItems());
+        assertEquals(0, statistics.getSoldItems());
+        assertEquals(0, statistics.getTotalRevenue().signum());
+        assertEquals(0, statistics.getPotentialRevenue().signum());
+    }
+
+    @Test
+    void saleBasedOnStalePriceIsRejected() {
+        Long productId = createProduct();
+        TransactionTemplate concurrentTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // La vendita legge il prodotto, poi un cambio di prezzo viene confermato prima del suo update
+        ConflictException conflict = assertThrows(ConflictException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            productRepository.findById(productId).orElseThrow();
+            ProductUpdateRequestDTO priceChange = new ProductUpdateRequestDTO();
+            priceChange.setCurrentPrice(new BigDecimal("40.00"));
+            concurrentTransaction.executeWithoutResult(inner -> productService.updateProduct(productId, priceChange));
+            productService.markProductAsSold(productId, owner.getId());
+        }));
+        assertTrue(conflict.getMessage().contains("modificato"));
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertFalse(product.isSold());
+        ProductStatisticsResponseDTO statistics = productStatisticsService.getStatistics(owner.getId());
+        assertEquals(0, statistics.getSoldItems());
+        assertEquals(0, statistics.getPotentialRevenue().compareTo(new BigDecimal("40.00")));
+
+        // Con la versione aggiornata la vendita usa il nuovo prezzo
+        transactionTemplate.executeWithoutResult(status -> productService.markProductAsSold(productId, owner.getId()));
+        assertEquals(0, productStatisticsService.getStatistics(owner.getId()).getTotalRevenue().compareTo(new BigDecimal("40.00")));
+        assertEquals(4.0, productRepository.findById(productId).orElseThrow().getSellerCommissionAmount(), 0.001);
+    }
+
+    @Test
+    void staleVersionIsRejected() {
+        Long productId = createProduct();
+        ProductUpdateRequestDTO first = new ProductUpdateRequestDTO();
+        first.setDescription("Prima modifica");
+        first.setVersion(0L);
+        ProductResponseDTO updated = transactionTemplate.execute(status -> productService.updateProduct(productId, first));
+        assertEquals(1L, updated.getVersion());
+
+        // Il secondo client ha letto la versione 0 prima della prima modifica
+        ProductUpdateRequestDTO stale = new ProductUpdateRequestDTO();
+        stale.setDescription("Modifica superata");
+        stale.setVersion(0L);
+        assertThrows(ConflictException.class, () -> productService.updateProduct(productId, stale));
+
+        // Modifica concorrente tra la lettura e il flush: la rileva @Version
+        TransactionTemplate concurrentTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            Product product = productRepository.findById(productId).orElseThrow();
+            ProductUpdateRequestDTO concurrent = new ProductUpdateRequestDTO();
+            concurrent.setDescription("Modifica concorrente");
+            concurrentTransaction.executeWithoutResult(inner -> productService.updateProduct(productId, concurrent));
+            product.setDescription("Sovrascrittura");
+            productRepository.flush();
+        }));
+    }
+
+    private Long createProduct() {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setDescription("Prodotto conteso");
+        dto.setGender(Gender.UNISEX);
+        dto.setCurrentPrice(new BigDecimal("25.00"));
+        dto.setOwnerId(owner.getId());
+        dto.setCategoryId(category.getId());
+        return productService.createProduct(dto).getId();
+    }
+}
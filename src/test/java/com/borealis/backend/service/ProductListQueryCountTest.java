@@ -0,0 +1,195 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.response.CursorPageResponseDTO;
+import com.borealis.backend.dto.response.NormalizedProductListResponseDTO;
+import com.borealis.backend.dto.response.ProductResponseDTO;
+import com.borealis.backend.dto.response.UserResponseDTO;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.Product;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica che le letture di liste di prodotti eseguano un numero fisso di query,
+ * indipendente dal numero di righe restituite (nessun N+1 su owner, seller, category e ruoli).
+ */
+@SpringBootTest
+class ProductListQueryCountTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoryLookupService categoryLookupService;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            User user = new User("Utente " + i, "query-count-" + i + "@borealis.com", "password");
+            user.addRole("ROLE_USER");
+            users.add(userRepository.save(user));
+            categories.add(categoryRepository.save(new Category(null, "Categoria query " + i, new ArrayList<>())));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll(categories);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void listReadsUseConstantStatementCount() {
+        Long ownerId = users.get(0).getId();
+
+        createProducts(3);
+        long allSmall = countStatements(() -> productService.getAllProducts());
+        long filterSmall = countStatements(() -> productService.getFilteredProducts(null, null, null, "SOLD"));
+        long ownerSmall = countStatements(() -> productService.getFilteredProducts(null, ownerId, null, null));
+        long pageSmall = countStatements(() -> productService.getProductsPage(null, null, null, null, null, 100, null).getContent());
+
+        createProducts(40);
+        long allLarge = countStatements(() -> productService.getAllProducts());
+        long filterLarge = countStatements(() -> productService.getFilteredProducts(null, null, null, "SOLD"));
+        long ownerLarge = countStatements(() -> productService.getFilteredProducts(null, ownerId, null, null));
+        long pageLarge = countStatements(() -> productService.getProductsPage(null, null, null, null, null, 100, null).getContent());
+
+        assertEquals(allSmall, allLarge, "getAllProducts");
+        assertEquals(filterSmall, filterLarge, "getFilteredProducts");
+        assertEquals(ownerSmall, ownerLarge, "getFilteredProducts per proprietario");
+        assertEquals(pageSmall, pageLarge, "getProductsPage");
+        // Una query per i prodotti (con owner, seller e category in join) e una per i ruoli degli utenti
+        assertEquals(2, allLarge);
+    }
+
+    @Test
+    void normalizedListResolvesEachUserAndCategoryOnce() {
+        createProducts(3);
+        categories.forEach(category -> categoryLookupService.getCategory(category.getId())); // Cache già popolata
+        long small = countNormalizedStatements(() -> productService.getNormalizedProducts(null, null, null, null));
+
+        createProducts(40);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        NormalizedProductListResponseDTO result = productService.getNormalizedProducts(null, null, null, null);
+        long large = statistics.getPrepareStatementCount();
+
+        assertEquals(small, large);
+        // Prodotti senza join, utenti con una query IN, ruoli in batch; le categorie arrivano dalla cache
+        assertEquals(3, large);
+        assertEquals(43, result.getProducts().size());
+        assertEquals(users.size(), result.getUsers().size());
+        assertEquals(categories.size(), result.getCategories().size());
+        result.getProducts().forEach(product -> {
+            assertTrue(result.getUsers().containsKey(product.getOwnerId()));
+            assertTrue(result.getCategories().containsKey(product.getCategoryId()));
+        });
+
+        NormalizedProductListResponseDTO page = productService.getNormalizedProductsPage(null, null, null, null, null, 10, null);
+        assertEquals(10, page.getProducts().size());
+        assertTrue(page.getHasNext());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    void sparseFieldsSelectOnlyRequestedColumns() {
+        createProducts(10);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<Map<String, Object>> rows = productService.getProductFields("description,currentPrice,sold", null, null, null, null);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(10, rows.size());
+        assertEquals(List.of("id", "description", "currentPrice", "sold"), List.copyOf(rows.get(0).keySet()));
+
+        // Il seller è letto dalla chiave esterna: i prodotti non venduti restano nel risultato con seller null
+        statistics.clear();
+        List<Map<String, Object>> withSeller = productService.getProductFields("seller", null, null, null, null);
+        assertEquals(10, withSeller.size());
+        assertEquals(5, withSeller.stream().filter(row -> row.get("seller") == null).count());
+        assertTrue(withSeller.stream().anyMatch(row -> row.get("seller") instanceof UserResponseDTO));
+        // Prodotti e utenti, più i ruoli in batch
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        CursorPageResponseDTO<Map<String, Object>> page = productService.getProductFieldsPage("description", null, null, null, null, null, 4, "price_asc");
+        assertEquals(4, page.getContent().size());
+        assertEquals(List.of("id", "description"), List.copyOf(page.getContent().get(0).keySet()));
+        CursorPageResponseDTO<Map<String, Object>> next = productService.getProductFieldsPage("description", null, null, null, null, page.getNextCursor(), 4, "price_asc");
+        assertNotEquals(page.getContent().get(3).get("id"), next.getContent().get(0).get("id"));
+    }
+
+    private long countNormalizedStatements(Supplier<NormalizedProductListResponseDTO> read) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        read.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countStatements(Supplier<List<ProductResponseDTO>> read) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ProductResponseDTO> result = read.get();
+        // Accede alle associazioni annidate come farebbe la serializzazione JSON
+        result.forEach(product -> {
+            product.getOwner().getRoles().size();
+            product.getCategory().getName();
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setOwner(users.get(i % users.size()));
+            product.setCategory(categories.get(i % categories.size()));
+            product.setDescription("Prodotto " + i);
+            product.setGender(Gender.UNISEX);
+            product.setCurrentPrice(BigDecimal.valueOf(10 + i));
+            product.setInsertionDate(LocalDate.now());
+            if (i % 2 == 0) {
+                product.markAsSold(users.get((i + 1) % users.size()));
+            }
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+}
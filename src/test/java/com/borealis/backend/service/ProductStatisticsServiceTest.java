@@ -0,0 +1,121 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.Enum.Gender;
+import com.borealis.backend.dto.request.ProductRequestDTO;
+import com.borealis.backend.dto.request.ProductUpdateRequestDTO;
+import com.borealis.backend.dto.response.ProductStatisticsResponseDTO;
+import com.borealis.backend.model.Category;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.CategoryRepository;
+import com.borealis.backend.repository.ProductRepository;
+import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.repository.projection.ProductStatisticsView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica che i contatori di product_statistics, aggiornati in modo incrementale dalle scritture,
+ * coincidano con le aggregazioni calcolate direttamente sulla tabella products.
+ */
+@SpringBootTest
+class ProductStatisticsServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStatisticsService productStatisticsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 2; i++) {
+            User user = new User("Utente " + i, "statistics-" + i + "@borealis.com", "password");
+            user.addRole("ROLE_USER");
+            users.add(userRepository.save(user));
+        }
+        category = categoryRepository.save(new Category(null, "Categoria statistiche", new ArrayList<>()));
+        productStatisticsService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.delete(category);
+        userRepository.deleteAll(users);
+        productStatisticsService.rebuild();
+    }
+
+    @Test
+    void incrementalCountersMatchAggregates() {
+        Long first = users.get(0).getId();
+        Long second = users.get(1).getId();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(createProduct(i % 2 == 0 ? first : second, BigDecimal.valueOf(10 + i)));
+        }
+
+        productService.markProductAsSold(ids.get(0), second);
+        productService.markProductAsSold(ids.get(1), first);
+        assertMatchesAggregates(first, second);
+
+        ProductUpdateRequestDTO priceChange = new ProductUpdateRequestDTO();
+        priceChange.setCurrentPrice(new BigDecimal("99.50"));
+        productService.updateProduct(ids.get(0), priceChange);
+        ProductUpdateRequestDTO unsold = new ProductUpdateRequestDTO();
+        unsold.setSold(false);
+        productService.updateProduct(ids.get(1), unsold);
+        productService.assignProductToOwner(ids.get(2), second);
+        assertMatchesAggregates(first, second);
+
+        productService.deleteProduct(ids.get(3));
+        productService.deleteProductsByIds(List.of(ids.get(4), ids.get(5)));
+        assertMatchesAggregates(first, second);
+
+        assertSame(productRepository.aggregateStatistics(), productStatisticsService.rebuild());
+    }
+
+    private Long createProduct(Long ownerId, BigDecimal price) {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setDescription("Prodotto statistiche");
+        dto.setGender(Gender.UNISEX);
+        dto.setCurrentPrice(price);
+        dto.setOwnerId(ownerId);
+        dto.setCategoryId(category.getId());
+        return productService.createProduct(dto).getId();
+    }
+
+    private void assertMatchesAggregates(Long... ownerIds) {
+        assertSame(productRepository.aggregateStatistics(), productStatisticsService.getStatistics(null));
+        for (Long ownerId : ownerIds) {
+            assertSame(productRepository.aggregateStatisticsByOwner(ownerId), productStatisticsService.getStatistics(ownerId));
+        }
+    }
+
+    private void assertSame(ProductStatisticsView expected, ProductStatisticsResponseDTO actual) {
+        assertEquals(expected.getTotalItems(), actual.getTotalItems());
+        assertEquals(expected.getSoldItems(), actual.getSoldItems());
+        assertEquals(0, expected.getTotalRevenue().compareTo(actual.getTotalRevenue()));
+        assertEquals(0, expected.getPotentialRevenue().compareTo(actual.getPotentialRevenue()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.borealis.backend.service;
+
+import com.borealis.backend.dto.response.ProductStatisticsResponseDTO;
+import com.borealis.backend.model.User;
+import com.borealis.backend.repository.UserRepository;
+import com.borealis.backend.search.ProductSearchIndexUpdater;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SyntheticDataGeneratorTest {
+
+    private static final String OWNED = " where owner_id in (select id from users where email like '%@dataset.borealis.com')";
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStatisticsService productStatisticsService;
+
+    @Autowired
+    private ProductSearchIndexUpdater productSearchIndexUpdater;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SyntheticDataGenerator.Dataset dataset;
+
+    @AfterEach
+    void tearDown() {
+        deleteDataset(dataset);
+        productStatisticsService.rebuild();
+        productSearchIndexUpdater.rebuild(); // Le delete JDBC non passano dall'aggiornamento incrementale dell'indice
+    }
+
+    @Test
+    void generatesSkewedCatalogWithPriceHistories() {
+        dataset = syntheticDataGenerator.generate(20, 5, 2000, "password");
+
+        assertEquals(20, dataset.getUserIds().size());
+        assertEquals(5, dataset.getCategoryIds().size());
+        assertEquals(2000, count("select count(*) from products" + OWNED));
+        assertEquals(dataset.getSoldProducts(), count("select count(*) from products" + OWNED + " and sold = true"));
+        assertTrue(dataset.getSoldProducts() > 600 && dataset.getSoldProducts() < 1000, "Quota di venduti attorno al 40%");
+
+        // Legge di potenza: il primo proprietario ha molti più prodotti di quelli a metà classifica
+        List<Long> userIds = dataset.getUserIds();
+        assertTrue(countOwned(userIds.get(0)) > 5 * countOwned(userIds.get(10)));
+
+        // Storico prezzi con ribassi: più voci dei prodotti, prezzo corrente uguale all'ultima voce e mai superiore alla prima
+        assertEquals(dataset.getPrices(), count("select count(*) from product_prices where product_id in (select id from products" + OWNED + ")"));
+        assertTrue(dataset.getPrices() > 2200);
+        assertEquals(0, count("select count(*) from products p" + OWNED.replace("owner_id", "p.owner_id")
+                + " and p.current_price <> (select pp.price from product_prices pp where pp.product_id = p.id"
+                + " order by pp.modification_date desc limit 1)"));
+        assertEquals(0, count("select count(*) from products p" + OWNED.replace("owner_id", "p.owner_id")
+                + " and p.current_price > (select pp.price from product_prices pp where pp.product_id = p.id"
+                + " order by pp.modification_date asc limit 1)"));
+        assertEquals(0, count("select count(*) from products" + OWNED + " and sold = true and (seller_id is null or sale_date < insertion_date)"));
+
+        // Statistiche ricalcolate e utenti in grado di autenticarsi
+        ProductStatisticsResponseDTO statistics = productService.getProductStatistics(userIds.get(0));
+        assertEquals(countOwned(userIds.get(0)), statistics.getTotalItems());
+        User user = userRepository.findByEmail(SyntheticDataGenerator.email(3)).orElseThrow();
+        assertTrue(passwordEncoder.matches("password", user.getPassword()));
+        assertEquals(List.of("ROLE_USER"), List.copyOf(user.getRoles()));
+    }
+
+    @Test
+    void sameSeedRunAndDateGiveSameDataset() {
+        LocalDate referenceDate = LocalDate.of(2026, 3, 1);
+        SyntheticDataGenerator.Dataset first = syntheticDataGenerator.generate(8, 3, 300, "password", "primo", referenceDate);
+        List<String> firstRows = rows(first);
+        deleteDataset(first);
+
+        dataset = syntheticDataGenerator.generate(8, 3, 300, "password", "secondo", referenceDate);
+        assertEquals(firstRows, rows(dataset));
+        assertTrue(firstRows.stream().noneMatch(row -> row.contains("2026-03-02")), "Nessuna data oltre quella di riferimento");
+    }
+
+    @Test
+    void secondDatasetIsRejectedBeforeInsertingRows() {
+        dataset = syntheticDataGenerator.generate(5, 2, 100, "password", "completo", LocalDate.now());
+        long users = count("select count(*) from users");
+        long products = count("select count(*) from products");
+
+        assertThrows(IllegalStateException.class,
+                () -> syntheticDataGenerator.generate(5, 2, 100, "password", "secondo", LocalDate.now()));
+        assertEquals(users, count("select count(*) from users"));
+        assertEquals(products, count("select count(*) from products"));
+        assertEquals(0, count("select count(*) from categories where name like 'Categoria % secondo'"));
+    }
+
+    @Test
+    void interruptedGenerationIsRemovedWithoutTouchingCompleteDataset() {
+        dataset = syntheticDataGenerator.generate(5, 2, 100, "password", "completo", LocalDate.now());
+        // Generazione interrotta prima dell'assegnazione delle email definitive: righe inserite con le email provvisorie
+        syntheticDataGenerator.insertPending(5, 2, 100, "password", "interrotto", LocalDate.now());
+        assertEquals(5, count("select count(*) from users where email like '%.in-corso-interrotto@dataset.borealis.com'"));
+        assertEquals(200, count("select count(*) from products" + OWNED));
+
+        assertEquals(5, syntheticDataGenerator.deleteIncomplete());
+
+        assertEquals(0, count("select count(*) from users where email like '%.in-corso-%'"));
+        assertEquals(0, count("select count(*) from categories where name like 'Categoria % interrotto'"));
+        assertEquals(100, count("select count(*) from products" + OWNED));
+        assertEquals(2, count("select count(*) from categories where name like 'Categoria % completo'"));
+        assertTrue(userRepository.findByEmail(SyntheticDataGenerator.email(0)).isPresent());
+        assertEquals(0, syntheticDataGenerator.deleteIncomplete());
+    }
+
+    // Contenuto dei prodotti senza ID: proprietario, venditore e categoria come posizioni nel dataset
+    private List<String> rows(SyntheticDataGenerator.Dataset generated) {
+        List<Long> userIds = generated.getUserIds();
+        List<Long> categoryIds = generated.getCategoryIds();
+        return jdbcTemplate.query("select p.*, (select string_agg(cast(pp.price as varchar) || '@' || cast(pp.modification_date as varchar), ','"
+                        + " order by pp.modification_date) from product_prices pp where pp.product_id = p.id) as prices"
+                        + " from products p" + OWNED.replace("owner_id", "p.owner_id") + " order by p.id",
+                (rs, rowNum) -> String.join("|", String.valueOf(userIds.indexOf(rs.getLong("owner_id"))),
+                        String.valueOf(categoryIds.indexOf(rs.getLong("category_id"))), rs.getString("description"),
+                        rs.getString("composition"), rs.getString("brand"), rs.getString("size"), rs.getString("gender"),
+                        rs.getBigDecimal("current_price").toPlainString(), rs.getString("insertion_date"),
+                        String.valueOf(rs.getBoolean("sold")), rs.getString("sale_date"),
+                        String.valueOf(userIds.indexOf(rs.getLong("seller_id"))), rs.getString("prices")));
+    }
+
+    private void deleteDataset(SyntheticDataGenerator.Dataset generated) {
+        jdbcTemplate.update("delete from product_prices where product_id in (select id from products" + OWNED + ")");
+        jdbcTemplate.update("delete from products" + OWNED);
+        jdbcTemplate.update("delete from user_roles where user_id in (select id from users where email like '%@dataset.borealis.com')");
+        jdbcTemplate.update("delete from users where email like '%@dataset.borealis.com'");
+        if (generated != null) {
+            generated.getCategoryIds().forEach(id -> jdbcTemplate.update("delete from categories where id = ?", id));
+        }
+    }
+
+    private long countOwned(Long ownerId) {
+        return jdbcTemplate.queryForObject("select count(*) from products where owner_id = ?", Long.class, ownerId);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}